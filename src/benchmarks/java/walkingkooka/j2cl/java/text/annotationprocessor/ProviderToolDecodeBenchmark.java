@@ -0,0 +1,226 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.IndentingPrinter;
+import walkingkooka.text.printer.Printer;
+import walkingkooka.text.printer.Printers;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding the <code>DATA</code> of each provider as a runtime provider does, reading every record, scanning
+ * for the record of a single locale, or finding that record through the index. Run with <code>-prof gc</code> to also
+ * report allocation, where the allocation of {@link #decodeIndexedLocale(ProviderToolDecodeBenchmarkSizes)} is that of
+ * the index header and one record.
+ * The size of the data and the number of records are reported as the secondary metrics of
+ * {@link ProviderToolDecodeBenchmarkSizes}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderToolDecodeBenchmark {
+
+    /**
+     * The locale decoded by the single locale benchmarks, which is selected by every filter.
+     */
+    private final static String LOCALE = "en-AU";
+
+    @Param({
+            "DateFormatProvider",
+            "DateFormatSymbolsProvider",
+            "DecimalFormatProvider",
+            "DecimalFormatSymbolsProvider"
+    })
+    public String provider;
+
+    @Param({
+            "en-AU",
+            "en-AU,en-NZ,fr-FR",
+            "*"
+    })
+    public String filter;
+
+    @Param({
+            "text",
+            "compact"
+    })
+    public String encoding;
+
+    private ProviderToolEncoding dataEncoding;
+
+    private ProviderToolDecodeBenchmarkDecoder decoder;
+
+    /**
+     * The records without an index.
+     */
+    String data;
+
+    /**
+     * The index header followed by the records.
+     */
+    String indexed;
+
+    /**
+     * The number of records.
+     */
+    int records;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final ProviderToolOptions options = ProviderToolOptions.DEFAULT.set(ProviderToolOptions.ENCODING, this.encoding);
+        final ProviderToolGenerateBenchmarkGenerator generator = ProviderToolGenerateBenchmarkGenerator.with(this.provider);
+        final ProviderToolSnapshot snapshot = ProviderToolSnapshot.with(WalkingkookaLanguageTag.locales(this.filter));
+        final ProviderToolEncoding dataEncoding = options.encoding();
+
+        this.dataEncoding = dataEncoding;
+        this.decoder = ProviderToolDecodeBenchmarkDecoder.with(this.provider);
+
+        try (final Printer printer = Printers.sink(LineEnding.NONE)) {
+            final IndentingPrinter comments = LocaleAwareAnnotationProcessor.comments(printer);
+
+            final StringBuilder data = new StringBuilder();
+            generator.generate(
+                    this.filter,
+                    snapshot,
+                    options,
+                    ProviderToolIndex.NONE,
+                    dataEncoding.output(data),
+                    comments
+            );
+            this.data = data.toString();
+
+            final StringBuilder body = new StringBuilder();
+            final ProviderToolIndex index = ProviderToolIndex.with(dataEncoding, body, false);
+            generator.generate(
+                    this.filter,
+                    snapshot,
+                    options,
+                    index,
+                    dataEncoding.output(body),
+                    comments
+            );
+
+            final StringBuilder indexed = new StringBuilder();
+            index.generate(dataEncoding.output(indexed), comments);
+            this.indexed = indexed.toString();
+
+            printer.flush();
+        }
+
+        this.records = this.dataEncoding.input(this.data).readInt();
+    }
+
+    /**
+     * Decodes the locales and values of every record.
+     */
+    @Benchmark
+    public void decodeAll(final ProviderToolDecodeBenchmarkSizes sizes,
+                          final Blackhole blackhole) throws IOException {
+        final DataInput data = this.dataEncoding.input(this.data);
+        final int count = data.readInt();
+
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(readLocales(data));
+            blackhole.consume(this.decoder.decode(data));
+        }
+    }
+
+    /**
+     * Decodes records until the record holding {@link #LOCALE}, as there is no way to skip a record without an index.
+     */
+    @Benchmark
+    public Object decodeLocale(final ProviderToolDecodeBenchmarkSizes sizes) throws IOException {
+        final DataInput data = this.dataEncoding.input(this.data);
+        final int count = data.readInt();
+
+        Object values = null;
+        for (int i = 0; i < count && null == values; i++) {
+            final Locale[] locales = readLocales(data);
+            final Object record = this.decoder.decode(data);
+
+            for (final Locale locale : locales) {
+                if (LOCALE.equals(locale.toLanguageTag())) {
+                    values = record;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reads the index header, then decodes only the record holding {@link #LOCALE}.
+     */
+    @Benchmark
+    public Object decodeIndexedLocale(final ProviderToolDecodeBenchmarkSizes sizes) throws IOException {
+        final DataInput data = this.dataEncoding.input(this.indexed);
+
+        final int[] offsets = new int[data.readInt()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = data.readInt();
+        }
+
+        int record = -1;
+        final int tagCount = data.readInt();
+        for (int i = 0; i < tagCount; i++) {
+            final String tag = data.readUTF();
+            final int tagRecord = data.readInt();
+            if (LOCALE.equals(tag)) {
+                record = tagRecord;
+            }
+        }
+
+        final DataInput recordData = this.dataEncoding.input(
+                data.readUTF()
+                        .substring(offsets[record])
+        );
+        readLocales(recordData);
+        return this.decoder.decode(recordData);
+    }
+
+    private static Locale[] readLocales(final DataInput data) throws IOException {
+        final Locale[] locales = new Locale[data.readInt()];
+        for (int i = 0; i < locales.length; i++) {
+            locales[i] = Locale.forLanguageTag(data.readUTF());
+        }
+        return locales;
+    }
+}
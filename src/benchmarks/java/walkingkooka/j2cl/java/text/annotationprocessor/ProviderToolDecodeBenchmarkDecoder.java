@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Reads the values of a single record following its locales, written by a provider tool with the default options, as a
+ * runtime provider hydrates them.
+ */
+interface ProviderToolDecodeBenchmarkDecoder {
+
+    /**
+     * Returns the decoder of the provider with the given simple name, eg <code>DecimalFormatProvider</code>.
+     */
+    static ProviderToolDecodeBenchmarkDecoder with(final String provider) {
+        final ProviderToolDecodeBenchmarkDecoder decoder;
+
+        switch (provider) {
+            case "DateFormatProvider":
+                decoder = ProviderToolDecodeBenchmarkDecoder::dateFormat;
+                break;
+            case "DateFormatSymbolsProvider":
+                decoder = ProviderToolDecodeBenchmarkDecoder::dateFormatSymbols;
+                break;
+            case "DecimalFormatProvider":
+                decoder = ProviderToolDecodeBenchmarkDecoder::decimalFormats;
+                break;
+            case "DecimalFormatSymbolsProvider":
+                decoder = ProviderToolDecodeBenchmarkDecoder::decimalFormatSymbols;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown provider " + provider);
+        }
+
+        return decoder;
+    }
+
+    /**
+     * The 4 date, 16 date time and 4 time patterns.
+     */
+    private static Object dateFormat(final DataInput data) throws IOException {
+        final String[] patterns = new String[4 + 16 + 4];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = data.readUTF();
+        }
+        return patterns;
+    }
+
+    /**
+     * The ampms, eras, months, short months, short weekdays and weekdays.
+     */
+    private static Object dateFormatSymbols(final DataInput data) throws IOException {
+        final String[][] symbols = new String[6][];
+        for (int i = 0; i < symbols.length; i++) {
+            final String[] strings = new String[data.readInt()];
+            for (int j = 0; j < strings.length; j++) {
+                strings[j] = data.readUTF();
+            }
+            symbols[i] = strings;
+        }
+        return symbols;
+    }
+
+    /**
+     * The currency, instance, integer, number and percent formats.
+     */
+    private static Object decimalFormats(final DataInput data) throws IOException {
+        final Object[][] formats = new Object[5][];
+        for (int i = 0; i < formats.length; i++) {
+            formats[i] = new Object[]{
+                    data.readBoolean(), // decimalSeparatorAlwaysShown
+                    data.readInt(), // groupingSize
+                    data.readBoolean(), // groupingUsed
+                    data.readInt(), // maximumFractionDigits
+                    data.readInt(), // minimumFractionDigits
+                    data.readInt(), // maximumIntegerDigits
+                    data.readInt(), // minimumIntegerDigits
+                    data.readInt(), // multiplier
+                    data.readUTF(), // negativePrefix
+                    data.readUTF(), // negativeSuffix
+                    data.readInt(), // parse
+                    data.readUTF(), // pattern
+                    data.readUTF(), // positivePrefix
+                    data.readUTF(), // positiveSuffix
+                    data.readUTF() // roundingMode
+            };
+        }
+        return formats;
+    }
+
+    private static Object decimalFormatSymbols(final DataInput data) throws IOException {
+        return new Object[]{
+                data.readChar(), // decimalSeparator
+                data.readChar(), // digit
+                data.readUTF(), // exponentSeparator
+                data.readChar(), // groupingSeparator
+                data.readUTF(), // infinity
+                data.readUTF(), // internationalCurrencySymbol
+                data.readChar(), // minusSign
+                data.readChar(), // monetaryDecimalSeparator
+                data.readUTF(), // nan
+                data.readChar(), // patternSeparator
+                data.readChar(), // percent
+                data.readChar(), // perMill
+                data.readChar() // zeroDigit
+        };
+    }
+
+    Object decode(final DataInput data) throws IOException;
+}
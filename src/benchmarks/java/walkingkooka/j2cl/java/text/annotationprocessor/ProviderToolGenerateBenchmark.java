@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.Printer;
+import walkingkooka.text.printer.Printers;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of each provider tool generating its data and comments for filters from a single locale to
+ * all locales. The locale data is harvested once per trial, so only the generation is measured. Run with
+ * <code>-prof gc</code> to also report the allocation rate. The size of the output is reported as the secondary metrics
+ * of {@link ProviderToolGenerateBenchmarkSizes}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderToolGenerateBenchmark {
+
+    @Param({
+            "DateFormatProvider",
+            "DateFormatSymbolsProvider",
+            "DecimalFormatProvider",
+            "DecimalFormatSymbolsProvider"
+    })
+    public String provider;
+
+    @Param({
+            "en-AU",
+            "en-AU,en-NZ,fr-FR",
+            "*"
+    })
+    public String filter;
+
+    private ProviderToolGenerateBenchmarkGenerator generator;
+
+    private ProviderToolSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.generator = ProviderToolGenerateBenchmarkGenerator.with(this.provider);
+        this.snapshot = ProviderToolSnapshot.with(WalkingkookaLanguageTag.locales(this.filter));
+
+        final StringBuilder data = new StringBuilder();
+        final StringBuilder comments = new StringBuilder();
+        this.generate(data, comments);
+
+        this.locales = this.snapshot.locales().size();
+        this.dataChars = data.length();
+        this.commentChars = comments.length();
+    }
+
+    /**
+     * The sizes of the output, which are reported by {@link ProviderToolGenerateBenchmarkSizes}.
+     */
+    int locales;
+    int dataChars;
+    int commentChars;
+
+    /**
+     * Generates the data and comments as the annotation processor does.
+     */
+    @Benchmark
+    public int generate(final ProviderToolGenerateBenchmarkSizes sizes) throws IOException {
+        final StringBuilder data = new StringBuilder();
+        final StringBuilder comments = new StringBuilder();
+        this.generate(data, comments);
+        return data.length() + comments.length();
+    }
+
+    /**
+     * Generates only the data, with the comments written to a sink.
+     */
+    @Benchmark
+    public int generateData(final ProviderToolGenerateBenchmarkSizes sizes) throws IOException {
+        final StringBuilder data = new StringBuilder();
+
+        try (final Printer printer = Printers.sink(LineEnding.NONE)) {
+            this.generator.generate(
+                    this.filter,
+                    this.snapshot,
+                    ProviderToolOptions.DEFAULT,
+                    ProviderToolIndex.NONE,
+                    StringDataInputDataOutput.output(data::append),
+                    LocaleAwareAnnotationProcessor.comments(printer)
+            );
+            printer.flush();
+        }
+        return data.length();
+    }
+
+    private void generate(final StringBuilder data,
+                          final StringBuilder comments) throws IOException {
+        try (final Printer printer = Printers.stringBuilder(comments, LineEnding.NL)) {
+            this.generator.generate(
+                    this.filter,
+                    this.snapshot,
+                    ProviderToolOptions.DEFAULT,
+                    ProviderToolIndex.NONE,
+                    StringDataInputDataOutput.output(data::append),
+                    LocaleAwareAnnotationProcessor.comments(printer)
+            );
+            printer.flush();
+        }
+    }
+}
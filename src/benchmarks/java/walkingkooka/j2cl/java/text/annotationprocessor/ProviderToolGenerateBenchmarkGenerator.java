@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.text.printer.IndentingPrinter;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The <code>generate</code> method shared by all provider tools.
+ */
+interface ProviderToolGenerateBenchmarkGenerator {
+
+    /**
+     * Returns the generator of the provider with the given simple name, eg <code>DecimalFormatProvider</code>.
+     */
+    static ProviderToolGenerateBenchmarkGenerator with(final String provider) {
+        final ProviderToolGenerateBenchmarkGenerator generator;
+
+        switch (provider) {
+            case "DateFormatProvider":
+                generator = DateFormatProviderTool::generate;
+                break;
+            case "DateFormatSymbolsProvider":
+                generator = DateFormatSymbolsProviderTool::generate;
+                break;
+            case "DecimalFormatProvider":
+                generator = DecimalFormatProviderTool::generate;
+                break;
+            case "DecimalFormatSymbolsProvider":
+                generator = DecimalFormatSymbolsProviderTool::generate;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown provider " + provider);
+        }
+
+        return generator;
+    }
+
+    String generate(final String filter,
+                    final ProviderToolSnapshot snapshot,
+                    final ProviderToolOptions options,
+                    final ProviderToolIndex index,
+                    final DataOutput data,
+                    final IndentingPrinter comments) throws IOException;
+}
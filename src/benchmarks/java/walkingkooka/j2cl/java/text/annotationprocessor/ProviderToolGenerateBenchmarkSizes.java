@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reports the size of the output of a {@link ProviderToolGenerateBenchmark} as secondary metrics alongside its
+ * throughput.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class ProviderToolGenerateBenchmarkSizes {
+
+    /**
+     * The number of selected locales.
+     */
+    public long locales;
+
+    /**
+     * The length of the data in chars.
+     */
+    public long dataChars;
+
+    /**
+     * The length of the comments in chars.
+     */
+    public long commentChars;
+
+    @Setup(Level.Iteration)
+    public void setup(final ProviderToolGenerateBenchmark benchmark) {
+        this.locales = benchmark.locales;
+        this.dataChars = benchmark.dataChars;
+        this.commentChars = benchmark.commentChars;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link DataInput} and {@link DataOutput} that packs values into the chars of a {@link String}, without any separators.
+ * <ul>
+ * <li>ints are variable length, written as {@link #DIGITS} that are printable ASCII and never need escaping in a Java or
+ * JavaScript literal, or by {@link walkingkooka.j2cl.java.io.string.StringDataInputDataOutput}. Each
+ * {@link #CONTINUATION} digit holds the next lowest part of the value, and a final digit holds the rest. Signed values
+ * are zig-zag encoded, so small negative values such as <code>-1</code> are also a single digit.</li>
+ * <li>booleans and bytes are ints.</li>
+ * <li>chars are a single unescaped char.</li>
+ * <li>strings are an unsigned length followed by the unescaped chars, so a string shorter than {@link #FINAL} chars costs
+ * the same single char as the separator of the text encoding.</li>
+ * </ul>
+ * Only plain {@link String} methods are used so the reader may be transpiled by J2CL.
+ */
+public final class CompactDataInputDataOutput implements DataInput, DataOutput {
+
+    /**
+     * The digits in value order, the first {@link #FINAL} end a value, the remaining {@link #CONTINUATION} are followed
+     * by more digits. Quotes, the comma and the backslash are absent.
+     */
+    final static String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz!#" +
+            "$%&()*+-./:;<=>?@[]^_`{|}~";
+
+    /**
+     * The number of digits that end a value.
+     */
+    private final static int FINAL = 64;
+
+    /**
+     * The number of digits that are followed by more digits.
+     */
+    private final static int CONTINUATION = 26;
+
+    /**
+     * The value of each ASCII char that is a digit, or -1.
+     */
+    private final static int[] VALUES = values();
+
+    private static int[] values() {
+        final int[] values = new int[128];
+        Arrays.fill(values, -1);
+
+        for (int i = 0; i < DIGITS.length(); i++) {
+            values[DIGITS.charAt(i)] = i;
+        }
+        return values;
+    }
+
+    /**
+     * Creates a {@link DataInput} that reads the given {@link String}.
+     */
+    public static DataInput input(final String data) {
+        Objects.requireNonNull(data, "data");
+        return new CompactDataInputDataOutput(data, null);
+    }
+
+    /**
+     * Creates a {@link DataOutput} that appends to the given {@link StringBuilder}.
+     */
+    public static DataOutput output(final StringBuilder data) {
+        Objects.requireNonNull(data, "data");
+        return new CompactDataInputDataOutput(null, data);
+    }
+
+    private CompactDataInputDataOutput(final String input,
+                                       final StringBuilder output) {
+        super();
+        this.input = input;
+        this.output = output;
+    }
+
+    // DataInput........................................................................................................
+
+    @Override
+    public void readFully(final byte[] bytes) throws IOException {
+        this.readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(final byte[] bytes,
+                          final int offset,
+                          final int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            bytes[offset + i] = this.readByte();
+        }
+    }
+
+    @Override
+    public int skipBytes(final int count) {
+        final int skip = Math.max(0, Math.min(count, this.input.length() - this.position));
+        this.position += skip;
+        return skip;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return this.readInt() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return (byte) this.readInt();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return this.readByte() & 0xff;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return (short) this.readInt();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return this.readInt() & 0xffff;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        final String input = this.input;
+        final int position = this.position;
+        if (position >= input.length()) {
+            throw new EOFException();
+        }
+        this.position = position + 1;
+        return input.charAt(position);
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        final int zigZag = this.readUnsigned();
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    /**
+     * Reads the continuation digits, lowest part first, followed by the final digit.
+     */
+    private int readUnsigned() throws IOException {
+        int value = 0;
+        int scale = 1;
+        int digit = this.readDigit();
+
+        while (digit >= FINAL) {
+            value += (digit - FINAL) * scale;
+            scale *= CONTINUATION;
+            digit = this.readDigit();
+        }
+
+        return value + digit * scale;
+    }
+
+    private int readDigit() throws IOException {
+        final char c = this.readChar();
+        final int digit = c < VALUES.length ?
+                VALUES[c] :
+                -1;
+        if (-1 == digit) {
+            throw new IOException("Invalid digit " + c + " at " + (this.position - 1));
+        }
+        return digit;
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        final long high = this.readInt();
+        final long low = this.readInt();
+        return (high << 32) | (low & 0xffffffffL);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(this.readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(this.readLong());
+    }
+
+    @Override
+    public String readLine() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        final int length = this.readUnsigned();
+        final int start = this.position;
+        final int end = start + length;
+        if (end > this.input.length()) {
+            throw new EOFException();
+        }
+        this.position = end;
+        return this.input.substring(start, end);
+    }
+
+    private final String input;
+
+    /**
+     * The index of the next char to read.
+     */
+    private int position;
+
+    // DataOutput.......................................................................................................
+
+    @Override
+    public void write(final int value) {
+        this.writeInt((byte) value);
+    }
+
+    @Override
+    public void write(final byte[] bytes) {
+        this.write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void write(final byte[] bytes,
+                      final int offset,
+                      final int length) {
+        for (int i = 0; i < length; i++) {
+            this.write(bytes[offset + i]);
+        }
+    }
+
+    @Override
+    public void writeBoolean(final boolean value) {
+        this.writeInt(value ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(final int value) {
+        this.write(value);
+    }
+
+    @Override
+    public void writeShort(final int value) {
+        this.writeInt((short) value);
+    }
+
+    @Override
+    public void writeChar(final int value) {
+        this.output.append((char) value);
+    }
+
+    @Override
+    public void writeInt(final int value) {
+        this.writeUnsigned((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes the value treating it as unsigned, as continuation digits lowest part first, followed by the final digit.
+     */
+    private void writeUnsigned(final int value) {
+        final StringBuilder output = this.output;
+        long remaining = value & 0xffffffffL;
+
+        while (remaining >= FINAL) {
+            output.append(DIGITS.charAt(FINAL + (int) (remaining % CONTINUATION)));
+            remaining /= CONTINUATION;
+        }
+        output.append(DIGITS.charAt((int) remaining));
+    }
+
+    @Override
+    public void writeLong(final long value) {
+        this.writeInt((int) (value >>> 32));
+        this.writeInt((int) value);
+    }
+
+    @Override
+    public void writeFloat(final float value) {
+        this.writeInt(Float.floatToIntBits(value));
+    }
+
+    @Override
+    public void writeDouble(final double value) {
+        this.writeLong(Double.doubleToLongBits(value));
+    }
+
+    @Override
+    public void writeBytes(final String value) {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            this.write(value.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeChars(final String value) {
+        this.output.append(value);
+    }
+
+    @Override
+    public void writeUTF(final String value) {
+        this.writeUnsigned(value.length());
+        this.output.append(value);
+    }
+
+    private final StringBuilder output;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return null != this.input ?
+                this.input.substring(this.position) :
+                this.output.toString();
+    }
+}
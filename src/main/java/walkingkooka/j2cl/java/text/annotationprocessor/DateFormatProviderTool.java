@@ -17,12 +17,8 @@
 
 package walkingkooka.j2cl.java.text.annotationprocessor;
 
-import walkingkooka.ToStringBuilder;
-import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.map.Maps;
-import walkingkooka.collect.set.SortedSets;
 import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
-import walkingkooka.j2cl.java.util.locale.support.LocaleSupport;
 import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
@@ -33,17 +29,15 @@ import walkingkooka.text.printer.Printers;
 
 import java.io.DataOutput;
 import java.io.IOException;
-import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.function.BiFunction;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * This tool prints a generated method to a {@link String} for inclusion in <code>DateFormatProvider.java.txt</code>
@@ -66,54 +60,119 @@ public final class DateFormatProviderTool {
                            final Set<Locale> locales,
                            final DataOutput data,
                            final IndentingPrinter comments) throws IOException {
-        new DateFormatProviderTool(data, comments).generate0(locales);
-        return LocaleAwareAnnotationProcessorTool.extractSummary(locales.size(),
+        return generate(filter,
+                ProviderToolSnapshot.with(locales),
+                ProviderToolOptions.DEFAULT,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        return generate(filter,
+                snapshot,
+                options,
+                ProviderToolIndex.NONE,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final ProviderToolIndex index,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        return generate(filter,
+                snapshot,
+                options,
+                index,
+                ProviderToolMetrics.NONE,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final ProviderToolIndex index,
+                           final ProviderToolMetrics metrics,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        final ProviderToolPhases phases = ProviderToolPhases.with(
+                "DateFormatProvider",
+                snapshot.locales().size(),
+                metrics
+        );
+        new DateFormatProviderTool(snapshot, options, index, phases, phases.data(data), comments).generate0();
+        return LocaleAwareAnnotationProcessorTool.extractSummary(snapshot.locales().size(),
                 "Locale",
                 filter);
     }
 
-    private DateFormatProviderTool(final DataOutput data,
+    private DateFormatProviderTool(final ProviderToolSnapshot snapshot,
+                                   final ProviderToolOptions options,
+                                   final ProviderToolIndex index,
+                                   final ProviderToolPhases phases,
+                                   final DataOutput data,
                                    final IndentingPrinter comments) {
         super();
+        this.snapshot = snapshot;
+        this.options = options;
+        this.index = index;
+        this.phases = phases;
         this.data = data;
-        this.comments = comments;
+        this.comments = options.comments(comments);
+        this.printComments = options.comments();
+        this.tokens = options.dateFormatProviderTokens();
     }
 
-    private void generate0(final Set<Locale> locales) throws IOException {
-        final Map<List<SimpleDateFormat>, Set<Locale>> formatsToLocales = Maps.sorted(DateFormatProviderTool::comparator);
+    private void generate0() throws IOException {
+        final ProviderToolPhases phases = this.phases;
+        phases.harvest();
+
+        final ProviderToolSnapshot snapshot = this.snapshot;
+        final Map<Locale, ProviderToolFingerprint<List<SimpleDateFormat>>> localeToFingerprint = snapshot.harvest(
+                locale -> fingerprint(snapshot.dateFormats(locale)),
+                this.options.parallel()
+        );
+        phases.group();
 
-        for (final Locale locale : locales) {
-            final List<SimpleDateFormat> formats = Lists.array();
+        final Map<ProviderToolFingerprint<List<SimpleDateFormat>>, Set<Locale>> formatsToLocales = ProviderToolFingerprint.group(localeToFingerprint);
+        final Map<Locale, ProviderToolFingerprint<List<SimpleDateFormat>>> localeToFormats = ProviderToolFingerprint.sortByFirstLocale(formatsToLocales);
+        phases.serialize(localeToFormats.size());
 
-            formats.addAll(getDateInstance(locale));
+        final DataOutput data = this.data;
+        final IndentingPrinter comments = this.comments;
 
-            for (int dateStyle : styles()) {
-                for (int timeStyle : styles()) {
-                    formats.add((SimpleDateFormat) DateFormat.getDateTimeInstance(dateStyle, timeStyle, locale));
+        final boolean pool = this.options.dateFormatProviderPool();
+        if (pool || this.tokens) {
+            final Map<String, Integer> patterns = this.collectPatterns(localeToFormats.values());
+            if (this.tokens) {
+                for (final ProviderToolFingerprint<List<SimpleDateFormat>> fingerprint : localeToFormats.values()) {
+                    for (final SimpleDateFormat format : fingerprint.value()) {
+                        ProviderToolDateFormatPattern.validate(format, VALIDATE_DATE);
+                    }
                 }
+                this.generateLiterals(patterns.keySet());
             }
-
-            formats.addAll(getTimeInstance(locale));
-
-            Set<Locale> formatLocales = formatsToLocales.get(formats);
-            if (null == formatLocales) {
-                formatLocales = SortedSets.tree(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR);
-                formatsToLocales.put(formats, formatLocales);
+            if (pool) {
+                this.generatePool(patterns);
             }
-            formatLocales.add(locale);
-        }
-
-        final Map<Locale, List<SimpleDateFormat>> localeToFormats = Maps.sorted(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR);
-        for (final Entry<List<SimpleDateFormat>, Set<Locale>> formatAndLocale : formatsToLocales.entrySet()) {
-            localeToFormats.put(formatAndLocale.getValue().iterator().next(), formatAndLocale.getKey());
         }
 
-        final DataOutput data = this.data;
-        final IndentingPrinter comments = this.comments;
         data.writeInt(localeToFormats.size());
 
-        for (final List<SimpleDateFormat> formats : localeToFormats.values()) {
-            LocaleSupport.generateLocales(formatsToLocales.get(formats),
+        for (final ProviderToolFingerprint<List<SimpleDateFormat>> fingerprint : localeToFormats.values()) {
+            final Set<Locale> locales = formatsToLocales.get(fingerprint);
+            this.index.record(locales);
+
+            ProviderToolLocales.generate(locales,
+                    this.snapshot,
+                    this.options,
                     data,
                     comments);
 
@@ -121,99 +180,357 @@ public final class DateFormatProviderTool {
             comments.print(comments.lineEnding());
 
             comments.indent();
-            {
-                final Iterator<SimpleDateFormat> iterator = formats.iterator();
-
-                generateDateFormat(iterator.next(), "DateInstance SHORT");
-                generateDateFormat(iterator.next(), "DateInstance MEDIUM");
-                generateDateFormat(iterator.next(), "DateInstance LONG");
-                generateDateFormat(iterator.next(), "DateInstance FULL");
-
-                generateDateFormat(iterator.next(), "DateTimeInstance SHORT, SHORT");
-                generateDateFormat(iterator.next(), "DateTimeInstance SHORT, MEDIUM");
-                generateDateFormat(iterator.next(), "DateTimeInstance SHORT, LONG");
-                generateDateFormat(iterator.next(), "DateTimeInstance SHORT, FULL");
-
-                generateDateFormat(iterator.next(), "DateTimeInstance MEDIUM, SHORT");
-                generateDateFormat(iterator.next(), "DateTimeInstance MEDIUM, MEDIUM");
-                generateDateFormat(iterator.next(), "DateTimeInstance MEDIUM, LONG");
-                generateDateFormat(iterator.next(), "DateTimeInstance MEDIUM, FULL");
-
-                generateDateFormat(iterator.next(), "DateTimeInstance LONG, SHORT");
-                generateDateFormat(iterator.next(), "DateTimeInstance LONG, MEDIUM");
-                generateDateFormat(iterator.next(), "DateTimeInstance LONG, LONG");
-                generateDateFormat(iterator.next(), "DateTimeInstance LONG, FULL");
-
-                generateDateFormat(iterator.next(), "DateTimeInstance FULL, SHORT");
-                generateDateFormat(iterator.next(), "DateTimeInstance FULL, MEDIUM");
-                generateDateFormat(iterator.next(), "DateTimeInstance FULL, LONG");
-                generateDateFormat(iterator.next(), "DateTimeInstance FULL, FULL");
-
-                generateDateFormat(iterator.next(), "TimeInstance SHORT");
-                generateDateFormat(iterator.next(), "TimeInstance MEDIUM");
-                generateDateFormat(iterator.next(), "TimeInstance LONG");
-                generateDateFormat(iterator.next(), "TimeInstance FULL");
-            }
+            this.generateRecord(fingerprint.value());
             comments.outdent();
 
             comments.print(comments.lineEnding());
         }
-    }
 
-    private static int comparator(final List<SimpleDateFormat> left,
-                                  final List<SimpleDateFormat> right) {
-        return toString(left).compareTo(toString(right));
+        phases.serialized();
     }
 
-    private static String toString(final List<SimpleDateFormat> format) {
-        return format.stream()
-                .map(DateFormatProviderTool::toString)
-                .collect(Collectors.joining("\n"));
+    private static ProviderToolFingerprint<List<SimpleDateFormat>> fingerprint(final List<SimpleDateFormat> formats) {
+        return ProviderToolFingerprint.with(formats,
+                formats.stream()
+                        .map(SimpleDateFormat::toPattern)
+                        .toArray());
     }
 
-    private static String toString(final SimpleDateFormat format) {
-        return ToStringBuilder.empty()
-                .label("pattern").value(format.toPattern())
-                .build();
+    /**
+     * Returns each unique pattern in the order they first appear. The records are visited without writing anything, so
+     * only patterns that are actually written are returned.
+     */
+    private Map<String, Integer> collectPatterns(final Collection<ProviderToolFingerprint<List<SimpleDateFormat>>> records) throws IOException {
+        final Map<String, Integer> patterns = Maps.ordered();
+
+        this.collect = patterns;
+        for (final ProviderToolFingerprint<List<SimpleDateFormat>> record : records) {
+            this.generateRecord(record.value());
+        }
+        this.collect = null;
+
+        return patterns;
     }
 
-    private static List<SimpleDateFormat> getDateInstance(final Locale locale) {
-        return simpleDateFormat(locale, SimpleDateFormat::getDateInstance);
+    /**
+     * A date formatted by the original and rebuilt patterns when validating tokens.
+     */
+    private final static Date VALIDATE_DATE = new Date(1234567890123L);
+
+    /**
+     * Writes each unique literal of all patterns once in the order they first appear, token patterns write the index of
+     * their literals.
+     */
+    private void generateLiterals(final Collection<String> patterns) throws IOException {
+        final Map<String, Integer> literals = Maps.ordered();
+        for (final String pattern : patterns) {
+            for (final String literal : ProviderToolDateFormatPattern.parse(pattern).literals()) {
+                if (false == literals.containsKey(literal)) {
+                    literals.put(literal, literals.size());
+                }
+            }
+        }
+
+        final DataOutput data = this.data;
+        final IndentingPrinter comments = this.comments;
+
+        data.writeInt(literals.size());
+
+        if (this.printComments) {
+            comments.lineStart();
+            comments.print("literals=" + literals.size());
+        }
+        comments.indent();
+        for (final Entry<String, Integer> literalAndIndex : literals.entrySet()) {
+            final String literal = literalAndIndex.getKey();
+            if (this.printComments) {
+                comments.lineStart();
+                comments.print(literalAndIndex.getValue() + "=" + CharSequences.quoteAndEscape(literal));
+            }
+            data.writeUTF(literal);
+        }
+        comments.outdent();
+        comments.lineStart();
+        comments.print(comments.lineEnding());
+
+        this.literals = literals;
     }
 
-    private static List<SimpleDateFormat> getTimeInstance(final Locale locale) {
-        return simpleDateFormat(locale, SimpleDateFormat::getTimeInstance);
+    /**
+     * When not null holds the index of every literal, and patterns are written as tokens.
+     */
+    private Map<String, Integer> literals;
+
+    /**
+     * Writes each unique pattern once in the order they first appear, the records that follow write the index of their
+     * patterns.
+     */
+    private void generatePool(final Map<String, Integer> pool) throws IOException {
+        final DataOutput data = this.data;
+        final IndentingPrinter comments = this.comments;
+
+        data.writeInt(pool.size());
+
+        if (this.printComments) {
+            comments.lineStart();
+            comments.print("patterns=" + pool.size());
+        }
+        comments.indent();
+        for (final Entry<String, Integer> patternAndIndex : pool.entrySet()) {
+            final String pattern = patternAndIndex.getKey();
+            if (this.printComments) {
+                comments.lineStart();
+                comments.print(patternAndIndex.getValue() + "=" + pattern);
+            }
+            this.pattern(pattern);
+        }
+        comments.outdent();
+        comments.lineStart();
+        comments.print(comments.lineEnding());
+
+        this.pool = pool;
     }
 
-    private static List<SimpleDateFormat> simpleDateFormat(final Locale locale,
-                                                           final BiFunction<Integer, Locale, DateFormat> factory) {
-        return IntStream.of(styles())
-                .mapToObj(s -> simpleDateFormat(s, locale, factory))
+    /**
+     * When not null holds the index of every pattern.
+     */
+    private Map<String, Integer> pool;
+
+    /**
+     * When not null {@link #field(String, String, String)} only adds patterns to this pool and nothing is written.
+     */
+    private Map<String, Integer> collect;
+
+    private void generateRecord(final List<SimpleDateFormat> formats) throws IOException {
+        final List<String> patterns = formats.stream()
+                .map(SimpleDateFormat::toPattern)
                 .collect(Collectors.toList());
+
+        for (int dateStyle = 0; dateStyle < STYLE_COUNT; dateStyle++) {
+            this.field(patterns.get(dateStyle), "DateInstance " + STYLES[dateStyle], "pattern");
+        }
+
+        if (this.options.dateFormatProviderGlue()) {
+            this.generateGlue(patterns);
+        } else {
+            for (int dateStyle = 0; dateStyle < STYLE_COUNT; dateStyle++) {
+                for (int timeStyle = 0; timeStyle < STYLE_COUNT; timeStyle++) {
+                    this.field(patterns.get(dateTime(dateStyle, timeStyle)),
+                            dateTimeLabel(dateStyle, timeStyle),
+                            "pattern");
+                }
+            }
+        }
+
+        for (int timeStyle = 0; timeStyle < STYLE_COUNT; timeStyle++) {
+            this.field(patterns.get(TIME + timeStyle), "TimeInstance " + STYLES[timeStyle], "pattern");
+        }
     }
 
-    private static int[] styles() {
-        return new int[]{DateFormat.SHORT, DateFormat.MEDIUM, DateFormat.LONG, DateFormat.FULL};
+    /**
+     * Writes the unique glue templates of the record followed by a glue index for each date time combination. A combination
+     * that cannot be rebuilt from its date and time pattern writes -1 followed by its literal pattern.
+     */
+    private void generateGlue(final List<String> patterns) throws IOException {
+        final Map<String, Integer> glues = Maps.ordered();
+        final String[] combinationGlue = new String[STYLE_COUNT * STYLE_COUNT];
+
+        for (int dateStyle = 0; dateStyle < STYLE_COUNT; dateStyle++) {
+            for (int timeStyle = 0; timeStyle < STYLE_COUNT; timeStyle++) {
+                final String date = patterns.get(dateStyle);
+                final String time = patterns.get(TIME + timeStyle);
+                final String dateTime = patterns.get(dateTime(dateStyle, timeStyle));
+
+                final String glue = glue(dateTime, date, time);
+                if (null != glue && dateTime.equals(compose(glue, date, time))) {
+                    combinationGlue[dateStyle * STYLE_COUNT + timeStyle] = glue;
+                    if (false == glues.containsKey(glue)) {
+                        glues.put(glue, glues.size());
+                    }
+                }
+            }
+        }
+
+        this.index(glues.size(), "DateTimeInstance", "glues");
+        for (final Entry<String, Integer> glueAndIndex : glues.entrySet()) {
+            this.field(glueAndIndex.getKey(), "DateTimeInstance glue " + glueAndIndex.getValue(), "pattern");
+        }
+
+        for (int dateStyle = 0; dateStyle < STYLE_COUNT; dateStyle++) {
+            for (int timeStyle = 0; timeStyle < STYLE_COUNT; timeStyle++) {
+                final String label = dateTimeLabel(dateStyle, timeStyle);
+                final String glue = combinationGlue[dateStyle * STYLE_COUNT + timeStyle];
+                if (null != glue) {
+                    this.index(glues.get(glue), label, "glue");
+                } else {
+                    this.index(LITERAL, label, "glue");
+                    this.field(patterns.get(dateTime(dateStyle, timeStyle)), label, "pattern");
+                }
+            }
+        }
     }
 
-    private static SimpleDateFormat simpleDateFormat(final int style,
-                                                     final Locale locale,
-                                                     final BiFunction<Integer, Locale, DateFormat> factory) {
-        return (SimpleDateFormat) factory.apply(style, locale);
+    /**
+     * The glue index of a date time combination that is stored as a literal pattern.
+     */
+    final static int LITERAL = -1;
+
+    /**
+     * The placeholder in a glue template replaced by the date pattern.
+     */
+    final static String GLUE_DATE = "{1}";
+
+    /**
+     * The placeholder in a glue template replaced by the time pattern.
+     */
+    final static String GLUE_TIME = "{0}";
+
+    /**
+     * Attempts to find the template holding {@link #GLUE_DATE} and {@link #GLUE_TIME} that joins the date and time
+     * patterns, returning null if the date time pattern is not the date and time patterns separated by some text.
+     */
+    static String glue(final String dateTime,
+                       final String date,
+                       final String time) {
+        String glue = null;
+
+        if (dateTime.length() >= date.length() + time.length()) {
+            if (dateTime.startsWith(date) && dateTime.endsWith(time)) {
+                glue = GLUE_DATE + dateTime.substring(date.length(), dateTime.length() - time.length()) + GLUE_TIME;
+            } else {
+                if (dateTime.startsWith(time) && dateTime.endsWith(date)) {
+                    glue = GLUE_TIME + dateTime.substring(time.length(), dateTime.length() - date.length()) + GLUE_DATE;
+                }
+            }
+        }
+
+        return glue;
+    }
+
+    /**
+     * Replaces the first {@link #GLUE_DATE} and {@link #GLUE_TIME} in the glue template, this is the same work the
+     * provider performs when reading the data.
+     */
+    static String compose(final String glue,
+                          final String date,
+                          final String time) {
+        final int dateIndex = glue.indexOf(GLUE_DATE);
+        final int timeIndex = glue.indexOf(GLUE_TIME);
+
+        final String composed;
+        if (-1 == dateIndex || -1 == timeIndex) {
+            composed = null;
+        } else {
+            composed = dateIndex < timeIndex ?
+                    glue.substring(0, dateIndex) +
+                            date +
+                            glue.substring(dateIndex + GLUE_DATE.length(), timeIndex) +
+                            time +
+                            glue.substring(timeIndex + GLUE_TIME.length()) :
+                    glue.substring(0, timeIndex) +
+                            time +
+                            glue.substring(timeIndex + GLUE_TIME.length(), dateIndex) +
+                            date +
+                            glue.substring(dateIndex + GLUE_DATE.length());
+        }
+        return composed;
+    }
+
+    private static int dateTime(final int dateStyle,
+                                final int timeStyle) {
+        return DATE_TIME + dateStyle * STYLE_COUNT + timeStyle;
     }
 
-    private void generateDateFormat(final SimpleDateFormat format,
-                                    final String label) throws IOException {
-        this.field(format.toPattern(), label, "pattern");
+    private static String dateTimeLabel(final int dateStyle,
+                                        final int timeStyle) {
+        return "DateTimeInstance " + STYLES[dateStyle] + ", " + STYLES[timeStyle];
+    }
+
+    /**
+     * The style names in the order formats are harvested by {@link ProviderToolSnapshot#dateFormats(Locale)}.
+     */
+    private final static String[] STYLES = {"SHORT", "MEDIUM", "LONG", "FULL"};
+
+    private final static int STYLE_COUNT = STYLES.length;
+
+    /**
+     * The offsets of the date time and time formats in each record.
+     */
+    private final static int DATE_TIME = STYLE_COUNT;
+    private final static int TIME = DATE_TIME + STYLE_COUNT * STYLE_COUNT;
+
+    private void index(final int value, final String type, final String property) throws IOException {
+        if (null == this.collect) {
+            if (this.printComments) {
+                this.comments.lineStart();
+                this.comments.print(type + " " + property + "=" + value);
+            }
+            this.data.writeInt(value);
+        }
     }
 
     private void field(final String value, final String type, final String property) throws IOException {
-        this.comments.lineStart();
-        this.comments.print(type + " " + property + "=" + value);
+        final Map<String, Integer> collect = this.collect;
+        if (null != collect) {
+            if (false == collect.containsKey(value)) {
+                collect.put(value, collect.size());
+            }
+        } else {
+            if (this.printComments) {
+                this.comments.lineStart();
+                this.comments.print(type + " " + property + "=" + value);
+            }
+
+            final Map<String, Integer> pool = this.pool;
+            if (null != pool) {
+                this.data.writeInt(pool.get(value));
+            } else {
+                this.pattern(value);
+            }
+        }
+    }
 
-        this.data.writeUTF(value);
+    /**
+     * Writes the pattern text, or when tokens are enabled the token count followed by the letter of each token and
+     * either its run length or the index of its literal.
+     */
+    private void pattern(final String pattern) throws IOException {
+        final DataOutput data = this.data;
+        final Map<String, Integer> literals = this.literals;
+
+        if (null != literals) {
+            final ProviderToolDateFormatPattern tokens = ProviderToolDateFormatPattern.parse(pattern);
+            final int count = tokens.count();
+
+            data.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                final char letter = tokens.letter(i);
+                data.writeChar(letter);
+                data.writeInt(
+                        ProviderToolDateFormatPattern.LITERAL == letter ?
+                                literals.get(tokens.literal(i)) :
+                                tokens.length(i)
+                );
+            }
+        } else {
+            data.writeUTF(pattern);
+        }
     }
 
+    private final ProviderToolSnapshot snapshot;
+    private final ProviderToolOptions options;
+    private final ProviderToolIndex index;
+    private final ProviderToolPhases phases;
     private final DataOutput data;
     private final IndentingPrinter comments;
+
+    /**
+     * When false comment text is never built.
+     */
+    private final boolean printComments;
+
+    /**
+     * When true patterns are written as {@link ProviderToolDateFormatPattern} tokens.
+     */
+    private final boolean tokens;
 }
@@ -17,9 +17,8 @@
 
 package walkingkooka.j2cl.java.text.annotationprocessor;
 
-import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
-import walkingkooka.j2cl.java.util.locale.support.LocaleSupport;
 import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
@@ -32,9 +31,9 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.text.DateFormatSymbols;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -59,73 +58,192 @@ public final class DateFormatSymbolsProviderTool {
                            final Set<Locale> locales,
                            final DataOutput data,
                            final IndentingPrinter comments) throws IOException {
-        new DateFormatSymbolsProviderTool(data, comments).generate0(locales);
-        return LocaleAwareAnnotationProcessorTool.extractSummary(locales.size(),
+        return generate(filter,
+                ProviderToolSnapshot.with(locales),
+                ProviderToolOptions.DEFAULT,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        return generate(filter,
+                snapshot,
+                options,
+                ProviderToolIndex.NONE,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final ProviderToolIndex index,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        return generate(filter,
+                snapshot,
+                options,
+                index,
+                ProviderToolMetrics.NONE,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final ProviderToolIndex index,
+                           final ProviderToolMetrics metrics,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        final ProviderToolPhases phases = ProviderToolPhases.with(
+                "DateFormatSymbolsProvider",
+                snapshot.locales().size(),
+                metrics
+        );
+        new DateFormatSymbolsProviderTool(snapshot, options, index, phases, phases.data(data), comments).generate0();
+        return LocaleAwareAnnotationProcessorTool.extractSummary(snapshot.locales().size(),
                 "Locale",
                 filter);
     }
 
-    private DateFormatSymbolsProviderTool(final DataOutput data,
+    private DateFormatSymbolsProviderTool(final ProviderToolSnapshot snapshot,
+                                          final ProviderToolOptions options,
+                                          final ProviderToolIndex index,
+                                          final ProviderToolPhases phases,
+                                          final DataOutput data,
                                           final IndentingPrinter comments) {
         super();
+        this.snapshot = snapshot;
+        this.options = options;
+        this.index = index;
+        this.phases = phases;
         this.data = data;
-        this.comments = comments;
+        this.comments = options.comments(comments);
+        this.printComments = options.comments();
     }
 
-    private void generate0(final Set<Locale> locales) throws IOException {
-        final Map<DateFormatSymbols, Set<Locale>> symbolToLocales = LocaleAwareAnnotationProcessorTool.buildMultiLocaleMap(
-                DateFormatSymbolsProviderTool::dateFormatSymbolsComparator,
-                DateFormatSymbols::getInstance,
-                locales);
+    private void generate0() throws IOException {
+        final ProviderToolPhases phases = this.phases;
+        phases.harvest();
 
-        final Map<Locale, DateFormatSymbols> localeToSymbols = Maps.sorted(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR);
-        for (final Entry<DateFormatSymbols, Set<Locale>> languageTagAndSymbol : symbolToLocales.entrySet()) {
-            localeToSymbols.put(languageTagAndSymbol.getValue().iterator().next(), languageTagAndSymbol.getKey());
-        }
+        final ProviderToolSnapshot snapshot = this.snapshot;
+        final Map<Locale, ProviderToolFingerprint<DateFormatSymbols>> localeToFingerprint = snapshot.harvest(
+                locale -> fingerprint(snapshot.dateFormatSymbols(locale)),
+                this.options.parallel()
+        );
+        phases.group();
+
+        final Map<ProviderToolFingerprint<DateFormatSymbols>, Set<Locale>> symbolToLocales = ProviderToolFingerprint.group(localeToFingerprint);
+        final Map<Locale, ProviderToolFingerprint<DateFormatSymbols>> localeToSymbols = ProviderToolFingerprint.sortByFirstLocale(symbolToLocales);
+        phases.serialize(localeToSymbols.size());
 
         final DataOutput data = this.data;
         final IndentingPrinter comments = this.comments;
 
         data.writeInt(localeToSymbols.size());
 
-        for (final DateFormatSymbols symbols : localeToSymbols.values()) {
-            LocaleSupport.generateLocales(symbolToLocales.get(symbols),
+        final boolean delta = this.options.dateFormatSymbolsProviderDelta();
+        final List<List<Object>> previous = Lists.array();
+
+        for (final ProviderToolFingerprint<DateFormatSymbols> fingerprint : localeToSymbols.values()) {
+            final Set<Locale> locales = symbolToLocales.get(fingerprint);
+            this.index.record(locales);
+
+            ProviderToolLocales.generate(locales,
+                    this.snapshot,
+                    this.options,
                     data,
                     comments);
             comments.indent();
             {
-                this.field(symbols.getAmPmStrings(), 0, "ampm");
-                this.field(symbols.getEras(), 0, "eras");
-                this.field(symbols.getMonths(), 0, "months"); // add extra 13th
-                this.field(symbols.getShortMonths(), 0, "shortMonths");
-                this.field(symbols.getShortWeekdays(), 1, "shortWeekdays"); // add empty 1st.
-                this.field(symbols.getWeekdays(), 1, "weekdays");
+                final List<Object> values = values(fingerprint.value());
+
+                int differences = FIELDS_ALL;
+                if (delta) {
+                    final int base = ProviderToolDelta.base(values, previous);
+                    this.field(base, "base");
+
+                    if (ProviderToolDelta.NO_BASE != base) {
+                        differences = ProviderToolDelta.differences(values, previous.get(base));
+                        this.field(differences, "differences");
+                    }
+                    previous.add(values);
+                }
+
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if (0 != (differences & (1 << i))) {
+                        this.field((String[]) values.get(i), OFFSETS[i], FIELDS[i]);
+                    }
+                }
             }
             comments.outdent();
             comments.lineStart();
             comments.print(comments.lineEnding());
         }
+
+        phases.serialized();
+    }
+
+    /**
+     * The values of all {@link #FIELDS} in the order they are written.
+     */
+    private static List<Object> values(final DateFormatSymbols symbols) {
+        return Lists.of(
+                symbols.getAmPmStrings(),
+                symbols.getEras(),
+                symbols.getMonths(), // add extra 13th
+                symbols.getShortMonths(),
+                symbols.getShortWeekdays(), // add empty 1st.
+                symbols.getWeekdays()
+        );
     }
 
-    private static int dateFormatSymbolsComparator(final DateFormatSymbols left,
-                                                   final DateFormatSymbols right) {
-        return toString(left).compareTo(toString(right));
+    /**
+     * The labels of the fields written for each record.
+     */
+    private final static String[] FIELDS = {
+            "ampm",
+            "eras",
+            "months",
+            "shortMonths",
+            "shortWeekdays",
+            "weekdays"
+    };
+
+    /**
+     * The number of leading values skipped for each of the {@link #FIELDS}, the weekdays begin with an empty value.
+     */
+    private final static int[] OFFSETS = {0, 0, 0, 0, 1, 1};
+
+    private final static int FIELDS_ALL = (1 << FIELDS.length) - 1;
+
+    private static ProviderToolFingerprint<DateFormatSymbols> fingerprint(final DateFormatSymbols symbols) {
+        return ProviderToolFingerprint.with(symbols,
+                values(symbols).toArray());
     }
 
-    private static String toString(final DateFormatSymbols symbols) {
-        return Arrays.toString(symbols.getAmPmStrings()) + "," +
-                Arrays.toString(symbols.getEras()) + "," +
-                Arrays.toString(symbols.getMonths()) + "," +
-                Arrays.toString(symbols.getShortMonths()) + "," +
-                Arrays.toString(symbols.getShortWeekdays()) + "," +
-                Arrays.toString(symbols.getWeekdays());
+    private void field(final int value,
+                       final String label) throws IOException {
+        if (this.printComments) {
+            this.comments.lineStart();
+            this.comments.print(label + "=" + value);
+        }
+
+        this.data.writeInt(value);
     }
 
     private void field(final String[] values,
                        final int offset,
                        final String label) throws IOException {
-        this.comments.lineStart();
-        this.comments.print(label + "=" + Arrays.stream(values).skip(offset).collect(Collectors.joining(", ")));
+        if (this.printComments) {
+            this.comments.lineStart();
+            this.comments.print(label + "=" + Arrays.stream(values).skip(offset).collect(Collectors.joining(", ")));
+        }
 
         this.data.writeInt(values.length - offset);
         for (int i = offset; i < values.length; i++) {
@@ -133,6 +251,15 @@ public final class DateFormatSymbolsProviderTool {
         }
     }
 
+    private final ProviderToolSnapshot snapshot;
+    private final ProviderToolOptions options;
+    private final ProviderToolIndex index;
+    private final ProviderToolPhases phases;
     private final DataOutput data;
     private final IndentingPrinter comments;
+
+    /**
+     * When false comment text is never built.
+     */
+    private final boolean printComments;
 }
@@ -17,38 +17,26 @@
 
 package walkingkooka.j2cl.java.text.annotationprocessor;
 
-import walkingkooka.collect.set.Sets;
-import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
-import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
 import walkingkooka.text.printer.IndentingPrinter;
 
 import java.io.DataOutput;
-import java.util.Optional;
-import java.util.Set;
-import java.util.function.Function;
 
-public final class DecimalFormatProviderAnnotationProcessor extends LocaleAwareAnnotationProcessor {
+public final class DecimalFormatProviderAnnotationProcessor extends ProviderAnnotationProcessor {
 
     @Override
-    protected Set<String> additionalArguments() {
-        return Sets.empty();
-    }
-
-    @Override
-    protected Optional<String> defaultValue(final Set<String> locales,
-                                            final Function<String, String> options) {
-        return Optional.empty();
-    }
-
-    @Override
-    protected String generate(final String filter,
-                              final Set<String> locales,
-                              final Function<String, String> arguments,
-                              final DataOutput dataOutput,
-                              final IndentingPrinter comments) throws Exception {
+    String generate(final String filter,
+                    final ProviderToolSnapshot snapshot,
+                    final ProviderToolOptions options,
+                    final ProviderToolIndex index,
+                    final ProviderToolMetrics metrics,
+                    final DataOutput dataOutput,
+                    final IndentingPrinter comments) throws Exception {
         return DecimalFormatProviderTool.generate(
                 filter,
-                LocaleAwareAnnotationProcessorTool.toLocales(locales),
+                snapshot,
+                options,
+                index,
+                metrics,
                 dataOutput,
                 comments
         );
@@ -17,12 +17,9 @@
 
 package walkingkooka.j2cl.java.text.annotationprocessor;
 
-import walkingkooka.ToStringBuilder;
 import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.map.Maps;
-import walkingkooka.collect.set.SortedSets;
 import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
-import walkingkooka.j2cl.java.util.locale.support.LocaleSupport;
 import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
@@ -34,7 +31,7 @@ import walkingkooka.text.printer.Printers;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -63,50 +60,110 @@ public final class DecimalFormatProviderTool {
                            final Set<Locale> locales,
                            final DataOutput data,
                            final IndentingPrinter comments) throws IOException {
-        new DecimalFormatProviderTool(data, comments).generate0(locales);
-        return LocaleAwareAnnotationProcessorTool.extractSummary(locales.size(),
+        return generate(filter,
+                ProviderToolSnapshot.with(locales),
+                ProviderToolOptions.DEFAULT,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        return generate(filter,
+                snapshot,
+                options,
+                ProviderToolIndex.NONE,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final ProviderToolIndex index,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        return generate(filter,
+                snapshot,
+                options,
+                index,
+                ProviderToolMetrics.NONE,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final ProviderToolIndex index,
+                           final ProviderToolMetrics metrics,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        final ProviderToolPhases phases = ProviderToolPhases.with(
+                "DecimalFormatProvider",
+                snapshot.locales().size(),
+                metrics
+        );
+        new DecimalFormatProviderTool(snapshot, options, index, phases, phases.data(data), comments).generate0();
+        return LocaleAwareAnnotationProcessorTool.extractSummary(snapshot.locales().size(),
                 "Locale",
                 filter);
     }
 
-    private DecimalFormatProviderTool(final DataOutput data,
+    private DecimalFormatProviderTool(final ProviderToolSnapshot snapshot,
+                                      final ProviderToolOptions options,
+                                      final ProviderToolIndex index,
+                                      final ProviderToolPhases phases,
+                                      final DataOutput data,
                                       final IndentingPrinter comments) {
         super();
+        this.snapshot = snapshot;
+        this.options = options;
+        this.index = index;
+        this.phases = phases;
         this.data = data;
-        this.comments = comments;
+        this.comments = options.comments(comments);
+        this.printComments = options.comments();
+        this.compiled = options.decimalFormatProviderCompiled();
+        this.fields = this.compiled ?
+                COMPILED_FIELDS :
+                FIELDS;
     }
 
-    private void generate0(final Set<Locale> locales) throws IOException {
-        final Map<List<DecimalFormat>, Set<Locale>> formatsToLocales = Maps.sorted(DecimalFormatProviderTool::comparator);
+    private void generate0() throws IOException {
+        final ProviderToolPhases phases = this.phases;
+        phases.harvest();
 
-        for (final Locale locale : locales) {
-            final DecimalFormat currency = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
-            final DecimalFormat instance = (DecimalFormat) NumberFormat.getInstance(locale);
-            final DecimalFormat integer = (DecimalFormat) NumberFormat.getIntegerInstance(locale);
-            final DecimalFormat number = (DecimalFormat) NumberFormat.getNumberInstance(locale);
-            final DecimalFormat percent = (DecimalFormat) NumberFormat.getPercentInstance(locale);
+        final ProviderToolSnapshot snapshot = this.snapshot;
+        final Map<Locale, ProviderToolFingerprint<List<DecimalFormat>>> localeToFingerprint = snapshot.harvest(
+                locale -> fingerprint(snapshot.decimalFormats(locale)),
+                this.options.parallel()
+        );
+        phases.group();
 
-            final List<DecimalFormat> formats = Lists.of(currency, instance, integer, number, percent);
+        final Map<ProviderToolFingerprint<List<DecimalFormat>>, Set<Locale>> formatsToLocales = ProviderToolFingerprint.group(localeToFingerprint);
+        final Map<Locale, ProviderToolFingerprint<List<DecimalFormat>>> localeToFormats = ProviderToolFingerprint.sortByFirstLocale(formatsToLocales);
+        phases.serialize(localeToFormats.size());
 
-            Set<Locale> formatLocales = formatsToLocales.get(formats);
-            if (null == formatLocales) {
-                formatLocales = SortedSets.tree(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR);
-                formatsToLocales.put(formats, formatLocales);
-            }
-            formatLocales.add(locale);
-        }
+        final DataOutput data = this.data;
+        final IndentingPrinter comments = this.comments;
 
-        final Map<Locale, List<DecimalFormat>> localeToFormats = Maps.sorted(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR);
-        for (final Entry<List<DecimalFormat>, Set<Locale>> formatAndLocale : formatsToLocales.entrySet()) {
-            localeToFormats.put(formatAndLocale.getValue().iterator().next(), formatAndLocale.getKey());
+        if (this.options.decimalFormatProviderTables()) {
+            this.generateTables(localeToFormats.values());
         }
 
-        final DataOutput data = this.data;
-        final IndentingPrinter comments = this.comments;
         data.writeInt(localeToFormats.size());
 
-        for (final List<DecimalFormat> formats : localeToFormats.values()) {
-            LocaleSupport.generateLocales(formatsToLocales.get(formats),
+        for (final ProviderToolFingerprint<List<DecimalFormat>> fingerprint : localeToFormats.values()) {
+            final Set<Locale> locales = formatsToLocales.get(fingerprint);
+            this.index.record(locales);
+
+            ProviderToolLocales.generate(locales,
+                    this.snapshot,
+                    this.options,
                     data,
                     comments);
             comments.indent();
@@ -114,50 +171,144 @@ public final class DecimalFormatProviderTool {
                 comments.lineStart();
                 comments.print(comments.lineEnding());
 
-                generateDecimalFormat(formats.get(0), "Currency");
-                generateDecimalFormat(formats.get(1), "Instance");
-                generateDecimalFormat(formats.get(2), "Integer");
-                generateDecimalFormat(formats.get(3), "Number");
-                generateDecimalFormat(formats.get(4), "Percent");
+                final List<DecimalFormat> formats = fingerprint.value();
+                for (int i = 0; i < VARIANTS.length; i++) {
+                    this.generateVariant(formats.get(i), i, formats.subList(0, i));
+                }
             }
             comments.outdent();
         }
+
+        phases.serialized();
     }
 
-    private static int comparator(final List<DecimalFormat> left,
-                                  final List<DecimalFormat> right) {
-        return toString(left).compareTo(toString(right));
+    private static ProviderToolFingerprint<List<DecimalFormat>> fingerprint(final List<DecimalFormat> formats) {
+        return ProviderToolFingerprint.with(formats,
+                formats.stream()
+                        .map(DecimalFormatProviderTool::key)
+                        .toArray());
+    }
+
+    /**
+     * The key of a format is the values that are written, the compiled values are all parsed from the pattern.
+     */
+    private static Object[] key(final DecimalFormat format) {
+        return values(format, false).toArray();
+    }
+
+    /**
+     * Writes a table of the unique formats for each variant in the order they first appear, the records that follow write
+     * the index of each of their formats.
+     */
+    private void generateTables(final Collection<ProviderToolFingerprint<List<DecimalFormat>>> records) throws IOException {
+        final DataOutput data = this.data;
+        final IndentingPrinter comments = this.comments;
+        final List<Map<ProviderToolFingerprint<DecimalFormat>, Integer>> tables = Lists.array();
+
+        for (int i = 0; i < VARIANTS.length; i++) {
+            final String variant = VARIANTS[i];
+            final Map<ProviderToolFingerprint<DecimalFormat>, Integer> table = Maps.ordered();
+
+            for (final ProviderToolFingerprint<List<DecimalFormat>> record : records) {
+                final ProviderToolFingerprint<DecimalFormat> format = variantFingerprint(record.value().get(i));
+                if (false == table.containsKey(format)) {
+                    table.put(format, table.size());
+                }
+            }
+
+            data.writeInt(table.size());
+
+            if (this.printComments) {
+                comments.lineStart();
+                comments.print(variant + " formats=" + table.size());
+            }
+            comments.indent();
+            {
+                comments.lineStart();
+                comments.print(comments.lineEnding());
+
+                final List<DecimalFormat> previous = Lists.array();
+                for (final Entry<ProviderToolFingerprint<DecimalFormat>, Integer> formatAndIndex : table.entrySet()) {
+                    final DecimalFormat format = formatAndIndex.getKey().value();
+                    this.generateDecimalFormat(format, variant + " " + formatAndIndex.getValue(), previous);
+                    previous.add(format);
+                }
+            }
+            comments.outdent();
+
+            tables.add(table);
+        }
+
+        this.tables = tables;
     }
 
-    private static String toString(final List<DecimalFormat> format) {
-        return format.stream()
-                .map(DecimalFormatProviderTool::toString)
-                .collect(Collectors.joining("\n"));
+    /**
+     * The variant names in the order formats are harvested by {@link ProviderToolSnapshot#decimalFormats(Locale)}.
+     */
+    private final static String[] VARIANTS = {"Currency", "Instance", "Integer", "Number", "Percent"};
+
+    /**
+     * When not null holds the index of every format for each variant.
+     */
+    private List<Map<ProviderToolFingerprint<DecimalFormat>, Integer>> tables;
+
+    private void generateVariant(final DecimalFormat format,
+                                 final int variant,
+                                 final List<DecimalFormat> previous) throws IOException {
+        final List<Map<ProviderToolFingerprint<DecimalFormat>, Integer>> tables = this.tables;
+        if (null != tables) {
+            this.field(tables.get(variant).get(variantFingerprint(format)), VARIANTS[variant], "index");
+        } else {
+            this.generateDecimalFormat(format, VARIANTS[variant], previous);
+        }
     }
 
-    private static String toString(final DecimalFormat format) {
-        return ToStringBuilder.empty()
-                .label("decimalSeparatorAlwaysShown").value(format.isDecimalSeparatorAlwaysShown())
-                .label("groupingSize").value(format.getGroupingSize())
-                .label("groupingUsed").value(format.isGroupingUsed())
-                .label("maximumFractionDigits").value(format.getMaximumFractionDigits())
-                .label("minimumFractionDigits").value(format.getMinimumFractionDigits())
-                .label("maximumIntegerDigits").value(format.getMaximumIntegerDigits())
-                .label("minimumIntegerDigits").value(format.getMinimumIntegerDigits())
-                .label("multiplier").value(format.getMultiplier())
-                .label("negativePrefix").value(format.getNegativePrefix())
-                .label("negativeSuffix").value(format.getNegativeSuffix())
-                .label("parseBigDecimal").value(format.isParseBigDecimal())
-                .label("parseIntegerOnly").value(format.isParseIntegerOnly())
-                .label("pattern").value(format.toPattern())
-                .label("positivePrefix").value(format.getPositivePrefix())
-                .label("positiveSuffix").value(format.getPositiveSuffix())
-                .label("roundingMode").value(format.getRoundingMode())
-                .build();
+    private static ProviderToolFingerprint<DecimalFormat> variantFingerprint(final DecimalFormat format) {
+        return ProviderToolFingerprint.with(format, key(format));
     }
 
+    /**
+     * Writes all fields of the format, or when references are enabled, a reference to the earlier format with the fewest
+     * different fields followed by a bit mask and the values of those fields. Previous holds the earlier formats of the
+     * same record, or the earlier formats of the same table.
+     */
     private void generateDecimalFormat(final DecimalFormat format,
-                                       final String type) throws IOException {
+                                       final String type,
+                                       final List<DecimalFormat> previous) throws IOException {
+        final boolean compiled = this.compiled;
+        final String[] fields = this.fields;
+        final List<Object> values = values(format, compiled);
+
+        int overrides = (1 << fields.length) - 1;
+        if (this.options.decimalFormatProviderReferences()) {
+            final List<List<Object>> previousValues = previous.stream()
+                    .map(f -> values(f, compiled))
+                    .collect(Collectors.toList());
+
+            final int reference = ProviderToolDelta.base(values, previousValues);
+
+            this.field(reference, type, "reference");
+            if (NO_REFERENCE != reference) {
+                overrides = ProviderToolDelta.differences(values, previousValues.get(reference));
+                this.field(overrides, type, "overrides");
+            }
+        }
+
+        for (int i = 0; i < fields.length; i++) {
+            if (0 != (overrides & (1 << i))) {
+                this.field(values.get(i), type, fields[i]);
+            }
+        }
+
+        this.comments.lineStart();
+        this.comments.print(this.comments.lineEnding());
+    }
+
+    /**
+     * The values of all {@link #FIELDS} in the order they are written, or when compiled the {@link #COMPILED_FIELDS}.
+     */
+    private static List<Object> values(final DecimalFormat format,
+                                       final boolean compiled) {
         int parse = PARSE_NONE;
         if (format.isParseIntegerOnly()) {
             parse |= PARSE_INTEGER_ONLY;
@@ -166,51 +317,165 @@ public final class DecimalFormatProviderTool {
             parse |= PARSE_BIG_DECIMAL;
         }
 
-        this.field(format.isDecimalSeparatorAlwaysShown(), type, "decimalSeparatorAlwaysShown");
-        this.field(format.getGroupingSize(), type, "groupingSize");
-        this.field(format.isGroupingUsed(), type, "groupingUsed");
-        this.field(format.getMaximumFractionDigits(), type, "maximumFractionDigits");
-        this.field(format.getMinimumFractionDigits(), type, "minimumFractionDigits");
-        this.field(format.getMaximumIntegerDigits(), type, "maximumIntegerDigits");
-        this.field(format.getMinimumIntegerDigits(), type, "minimumIntegerDigits");
-        this.field(format.getMultiplier(), type, "multiplier");
-        this.field(format.getNegativePrefix(), type, "negativePrefix");
-        this.field(format.getNegativeSuffix(), type, "negativeSuffix");
-        this.field(parse, type, "parse");
-        this.field(format.toPattern(), type, "pattern");
-        this.field(format.getPositivePrefix(), type, "positivePrefix");
-        this.field(format.getPositiveSuffix(), type, "positiveSuffix");
-        this.field(format.getRoundingMode().name(), type, "roundingMode");
+        final List<Object> values = Lists.array();
+        values.addAll(Lists.of(
+                format.isDecimalSeparatorAlwaysShown(),
+                format.getGroupingSize(),
+                format.isGroupingUsed(),
+                format.getMaximumFractionDigits(),
+                format.getMinimumFractionDigits(),
+                format.getMaximumIntegerDigits(),
+                format.getMinimumIntegerDigits(),
+                format.getMultiplier(),
+                format.getNegativePrefix(),
+                format.getNegativeSuffix(),
+                parse,
+                format.toPattern(),
+                format.getPositivePrefix(),
+                format.getPositiveSuffix(),
+                format.getRoundingMode().name()
+        ));
 
-        this.comments.lineStart();
-        this.comments.print(this.comments.lineEnding());
+        if (compiled) {
+            values.remove(PATTERN);
+            values.addAll(ProviderToolDecimalFormatPattern.parse(format.toPattern()).values());
+        }
+
+        return values;
+    }
+
+    /**
+     * The names of the fields written for each format.
+     */
+    private final static String[] FIELDS = {
+            "decimalSeparatorAlwaysShown",
+            "groupingSize",
+            "groupingUsed",
+            "maximumFractionDigits",
+            "minimumFractionDigits",
+            "maximumIntegerDigits",
+            "minimumIntegerDigits",
+            "multiplier",
+            "negativePrefix",
+            "negativeSuffix",
+            "parse",
+            "pattern",
+            "positivePrefix",
+            "positiveSuffix",
+            "roundingMode"
+    };
+
+    /**
+     * The index of the pattern within {@link #FIELDS}.
+     */
+    private final static int PATTERN = 11;
+
+    /**
+     * The names of the fields written for each compiled format, the pattern is replaced by its parsed structures.
+     */
+    private final static String[] COMPILED_FIELDS = compiledFields();
+
+    private static String[] compiledFields() {
+        final List<String> fields = Lists.array();
+        fields.addAll(Lists.of(FIELDS));
+        fields.remove(PATTERN);
+        fields.addAll(Lists.of(ProviderToolDecimalFormatPattern.FIELDS));
+        return fields.toArray(new String[0]);
     }
 
+    /**
+     * The reference written by a format that does not refer to an earlier format.
+     */
+    final static int NO_REFERENCE = ProviderToolDelta.NO_BASE;
+
     final static int PARSE_NONE = 0;
     final static int PARSE_INTEGER_ONLY = 1;
     final static int PARSE_BIG_DECIMAL = 2;
 
+    @SuppressWarnings("unchecked")
+    private void field(final Object value, final String type, final String property) throws IOException {
+        if (value instanceof Boolean) {
+            this.field((boolean) (Boolean) value, type, property);
+        } else {
+            if (value instanceof Integer) {
+                this.field((int) (Integer) value, type, property);
+            } else {
+                if (value instanceof List) {
+                    this.affix((List<Object>) value, type, property);
+                } else {
+                    this.field((String) value, type, property);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the token count followed by each token kind, literals are followed by their text.
+     */
+    private void affix(final List<Object> tokens, final String type, final String property) throws IOException {
+        if (this.printComments) {
+            this.comments.lineStart();
+            this.comments.print(type + " " + property + "=" + ProviderToolDecimalFormatPattern.affixToString(tokens));
+        }
+
+        final DataOutput data = this.data;
+        data.writeInt(tokens.size());
+        for (final Object token : tokens) {
+            if (token instanceof String) {
+                data.writeInt(ProviderToolDecimalFormatPattern.LITERAL);
+                data.writeUTF((String) token);
+            } else {
+                data.writeInt((Integer) token);
+            }
+        }
+    }
+
     private void field(final boolean value, final String type, final String property) throws IOException {
-        this.comments.lineStart();
-        this.comments.print(type + " " + property + "=" + value);
+        if (this.printComments) {
+            this.comments.lineStart();
+            this.comments.print(type + " " + property + "=" + value);
+        }
 
         this.data.writeBoolean(value);
     }
 
     private void field(final int value, final String type, final String property) throws IOException {
-        this.comments.lineStart();
-        this.comments.print(type + " " + property + "=" + value);
+        if (this.printComments) {
+            this.comments.lineStart();
+            this.comments.print(type + " " + property + "=" + value);
+        }
 
         this.data.writeInt(value);
     }
 
     private void field(final String value, final String type, final String property) throws IOException {
-        this.comments.lineStart();
-        this.comments.print(type + " " + property + "=" + value);
+        if (this.printComments) {
+            this.comments.lineStart();
+            this.comments.print(type + " " + property + "=" + value);
+        }
 
         this.data.writeUTF(value);
     }
 
+    private final ProviderToolSnapshot snapshot;
+    private final ProviderToolOptions options;
+    private final ProviderToolIndex index;
+    private final ProviderToolPhases phases;
     private final DataOutput data;
     private final IndentingPrinter comments;
+
+    /**
+     * When false comment text is never built.
+     */
+    private final boolean printComments;
+
+    /**
+     * When true patterns are written as {@link ProviderToolDecimalFormatPattern} structures.
+     */
+    private final boolean compiled;
+
+    /**
+     * Either {@link #FIELDS} or {@link #COMPILED_FIELDS}.
+     */
+    private final String[] fields;
 }
@@ -17,10 +17,8 @@
 
 package walkingkooka.j2cl.java.text.annotationprocessor;
 
-import walkingkooka.ToStringBuilder;
-import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
-import walkingkooka.j2cl.java.util.locale.support.LocaleSupport;
 import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
@@ -32,11 +30,10 @@ import walkingkooka.text.printer.Printers;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.text.DecimalFormatSymbols;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.function.Function;
 
 /**
  * This tool prints to sysout, which will become the main body of <code>DecimalFormatSymbolProvider</code>
@@ -59,102 +56,127 @@ public final class DecimalFormatSymbolsProviderTool {
                            final Set<Locale> locales,
                            final DataOutput data,
                            final IndentingPrinter comments) throws IOException {
-        final Map<DecimalFormatSymbols, Set<Locale>> symbolToLanguageTags = LocaleAwareAnnotationProcessorTool.buildMultiLocaleMap(
-                DecimalFormatSymbolsProviderTool::decimalFormatSymbolsComparator,
-                localeToDecimalFormatSymbols(),
-                locales
+        return generate(filter,
+                ProviderToolSnapshot.with(locales),
+                ProviderToolOptions.DEFAULT,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        return generate(filter,
+                snapshot,
+                options,
+                ProviderToolIndex.NONE,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final ProviderToolIndex index,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        return generate(filter,
+                snapshot,
+                options,
+                index,
+                ProviderToolMetrics.NONE,
+                data,
+                comments);
+    }
+
+    static String generate(final String filter,
+                           final ProviderToolSnapshot snapshot,
+                           final ProviderToolOptions options,
+                           final ProviderToolIndex index,
+                           final ProviderToolMetrics metrics,
+                           final DataOutput data,
+                           final IndentingPrinter comments) throws IOException {
+        final ProviderToolPhases phases = ProviderToolPhases.with(
+                "DecimalFormatSymbolsProvider",
+                snapshot.locales().size(),
+                metrics
         );
+        new DecimalFormatSymbolsProviderTool(snapshot, options, index, phases, phases.data(data), comments).generate0();
+        return LocaleAwareAnnotationProcessorTool.extractSummary(snapshot.locales().size(),
+                "Locale",
+                filter);
+    }
 
-        final Map<Locale, DecimalFormatSymbols> localesToSymbols = Maps.sorted(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR);
-        for (final Entry<DecimalFormatSymbols, Set<Locale>> languageTagAndSymbol : symbolToLanguageTags.entrySet()) {
-            localesToSymbols.put(languageTagAndSymbol.getValue().iterator().next(), languageTagAndSymbol.getKey());
-        }
+    private DecimalFormatSymbolsProviderTool(final ProviderToolSnapshot snapshot,
+                                             final ProviderToolOptions options,
+                                             final ProviderToolIndex index,
+                                             final ProviderToolPhases phases,
+                                             final DataOutput data,
+                                             final IndentingPrinter comments) {
+        super();
+        this.snapshot = snapshot;
+        this.options = options;
+        this.index = index;
+        this.phases = phases;
+        this.data = data;
+        this.comments = options.comments(comments);
+        this.printComments = options.comments();
+    }
+
+    private void generate0() throws IOException {
+        final ProviderToolPhases phases = this.phases;
+        phases.harvest();
+
+        final ProviderToolSnapshot snapshot = this.snapshot;
+        final Map<Locale, ProviderToolFingerprint<DecimalFormatSymbols>> localeToFingerprint = snapshot.harvest(
+                locale -> fingerprint(snapshot.decimalFormatSymbols(locale)),
+                this.options.parallel()
+        );
+        phases.group();
+
+        final Map<ProviderToolFingerprint<DecimalFormatSymbols>, Set<Locale>> symbolToLanguageTags = ProviderToolFingerprint.group(localeToFingerprint);
+        final Map<Locale, ProviderToolFingerprint<DecimalFormatSymbols>> localesToSymbols = ProviderToolFingerprint.sortByFirstLocale(symbolToLanguageTags);
+        phases.serialize(localesToSymbols.size());
+
+        final DataOutput data = this.data;
+        final IndentingPrinter comments = this.comments;
 
         data.writeInt(localesToSymbols.size());
 
-        for (final DecimalFormatSymbols symbols : localesToSymbols.values()) {
-            LocaleSupport.generateLocales(symbolToLanguageTags.get(symbols),
+        final boolean delta = this.options.decimalFormatSymbolsProviderDelta();
+        final List<List<Object>> previous = Lists.array();
+
+        for (final ProviderToolFingerprint<DecimalFormatSymbols> fingerprint : localesToSymbols.values()) {
+            final Set<Locale> locales = symbolToLanguageTags.get(fingerprint);
+            this.index.record(locales);
+
+            ProviderToolLocales.generate(locales,
+                    this.snapshot,
+                    this.options,
                     data,
                     comments);
             comments.indent();
             {
-                {
-                    final char decimalSeparator = symbols.getDecimalSeparator();
-                    comments.lineStart();
-                    comments.print("decimalSeparator=" + decimalSeparator);
-                    data.writeChar(decimalSeparator);
-                }
-                {
-                    final char digit = symbols.getDigit();
-                    comments.lineStart();
-                    comments.print("digit=" + digit);
-                    data.writeChar(digit);
-                }
-                {
-                    final String exponentSeparator = symbols.getExponentSeparator();
-                    comments.lineStart();
-                    comments.print("exponentSeparator=" + exponentSeparator);
-                    data.writeUTF(exponentSeparator);
-                }
-                {
-                    final char groupingSeparator = symbols.getGroupingSeparator();
-                    comments.lineStart();
-                    comments.print("groupingSeparator=" + groupingSeparator);
-                    data.writeChar(groupingSeparator);
-                }
-                {
-                    final String infinity = symbols.getInfinity();
-                    comments.lineStart();
-                    comments.print("infinity=" + infinity);
-                    data.writeUTF(infinity);
-                }
-                {
-                    final String internationalCurrencySymbol = symbols.getInternationalCurrencySymbol();
-                    comments.lineStart();
-                    comments.print("internationalCurrencySymbol=" + internationalCurrencySymbol);
-                    data.writeUTF(internationalCurrencySymbol);
-                }
-                {
-                    final char minusSign = symbols.getMinusSign();
-                    comments.lineStart();
-                    comments.print("minusSign=" + minusSign);
-                    data.writeChar(minusSign);
-                }
-                {
-                    final char monetaryDecimalSeparator = symbols.getMonetaryDecimalSeparator();
-                    comments.lineStart();
-                    comments.print("monetaryDecimalSeparator=" + monetaryDecimalSeparator);
-                    data.writeChar(monetaryDecimalSeparator);
-                }
-                {
-                    final String nan = symbols.getNaN();
-                    comments.lineStart();
-                    comments.print("nan=" + nan);
-                    data.writeUTF(nan);
-                }
-                {
-                    final char patternSeparator = symbols.getPatternSeparator();
-                    comments.lineStart();
-                    comments.print("patternSeparator=" + patternSeparator);
-                    data.writeChar(patternSeparator);
-                }
-                {
-                    final char percent = symbols.getPercent();
-                    comments.lineStart();
-                    comments.print("percent=" + percent);
-                    data.writeChar(percent);
-                }
-                {
-                    final char perMill = symbols.getPerMill();
-                    comments.lineStart();
-                    comments.print("perMill=" + perMill);
-                    data.writeChar(perMill);
+                final List<Object> values = values(fingerprint.value());
+
+                int differences = FIELDS_ALL;
+                if (delta) {
+                    final int base = ProviderToolDelta.base(values, previous);
+                    this.field(base, "base");
+
+                    if (ProviderToolDelta.NO_BASE != base) {
+                        differences = ProviderToolDelta.differences(values, previous.get(base));
+                        this.field(differences, "differences");
+                    }
+                    previous.add(values);
                 }
-                {
-                    final char zeroDigit = symbols.getZeroDigit();
-                    comments.lineStart();
-                    comments.print("zeroDigit=" + zeroDigit);
-                    data.writeChar(zeroDigit);
+
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if (0 != (differences & (1 << i))) {
+                        this.field(values.get(i), FIELDS[i]);
+                    }
                 }
             }
             comments.outdent();
@@ -163,40 +185,105 @@ public final class DecimalFormatSymbolsProviderTool {
             comments.print(LineEnding.SYSTEM);
         }
 
-        return LocaleAwareAnnotationProcessorTool.extractSummary(locales.size(),
-                "Locale",
-                filter);
+        phases.serialized();
     }
 
-    private static int decimalFormatSymbolsComparator(final DecimalFormatSymbols left,
-                                                      final DecimalFormatSymbols right) {
-        return toString(left).compareTo(toString(right));
+    /**
+     * The values of all {@link #FIELDS} in the order they are written, either a {@link Character} or {@link String}.
+     */
+    private static List<Object> values(final DecimalFormatSymbols symbols) {
+        return Lists.of(
+                symbols.getDecimalSeparator(),
+                symbols.getDigit(),
+                symbols.getExponentSeparator(),
+                symbols.getGroupingSeparator(),
+                symbols.getInfinity(),
+                symbols.getInternationalCurrencySymbol(),
+                symbols.getMinusSign(),
+                symbols.getMonetaryDecimalSeparator(),
+                symbols.getNaN(),
+                symbols.getPatternSeparator(),
+                symbols.getPercent(),
+                symbols.getPerMill(),
+                symbols.getZeroDigit()
+        );
     }
 
-    private static Function<Locale, DecimalFormatSymbols> localeToDecimalFormatSymbols() {
-        return locale -> DecimalFormatSymbols.getInstance(locale);
-    }
+    /**
+     * The labels of the fields written for each record.
+     */
+    private final static String[] FIELDS = {
+            "decimalSeparator",
+            "digit",
+            "exponentSeparator",
+            "groupingSeparator",
+            "infinity",
+            "internationalCurrencySymbol",
+            "minusSign",
+            "monetaryDecimalSeparator",
+            "nan",
+            "patternSeparator",
+            "percent",
+            "perMill",
+            "zeroDigit"
+    };
+
+    private final static int FIELDS_ALL = (1 << FIELDS.length) - 1;
 
     // currency + currencySymbol are not written by generated code so they are not important to equality.
-    private static String toString(final DecimalFormatSymbols symbols) {
-        return ToStringBuilder.empty()
-                .label("decimalSeparator").value(symbols.getDecimalSeparator())
-                .label("digit").value(symbols.getDigit())
-                .label("exponentSeparator").value(symbols.getExponentSeparator())
-                .label("groupingSeparator").value(symbols.getGroupingSeparator())
-                .label("infinity").value(symbols.getInfinity())
-                .label("internationalCurrencySymbol").value(symbols.getInternationalCurrencySymbol())
-                .label("minus").value(symbols.getMinusSign())
-                .label("monetaryDecimalSeparator").value(symbols.getMonetaryDecimalSeparator())
-                .label("nan").value(symbols.getNaN())
-                .label("patternSeparator").value(symbols.getPatternSeparator())
-                .label("percent").value(symbols.getPercent())
-                .label("perMill").value(symbols.getPerMill())
-                .label("zeroDigit").value(symbols.getZeroDigit())
-                .build();
+    private static ProviderToolFingerprint<DecimalFormatSymbols> fingerprint(final DecimalFormatSymbols symbols) {
+        return ProviderToolFingerprint.with(symbols,
+                values(symbols).toArray());
     }
 
-    private DecimalFormatSymbolsProviderTool() {
-        throw new UnsupportedOperationException();
+    private void field(final Object value,
+                       final String label) throws IOException {
+        if (value instanceof Character) {
+            this.field((char) (Character) value, label);
+        } else {
+            this.field((String) value, label);
+        }
+    }
+
+    private void field(final int value,
+                       final String label) throws IOException {
+        if (this.printComments) {
+            this.comments.lineStart();
+            this.comments.print(label + "=" + value);
+        }
+
+        this.data.writeInt(value);
     }
+
+    private void field(final char value,
+                       final String label) throws IOException {
+        if (this.printComments) {
+            this.comments.lineStart();
+            this.comments.print(label + "=" + value);
+        }
+
+        this.data.writeChar(value);
+    }
+
+    private void field(final String value,
+                       final String label) throws IOException {
+        if (this.printComments) {
+            this.comments.lineStart();
+            this.comments.print(label + "=" + value);
+        }
+
+        this.data.writeUTF(value);
+    }
+
+    private final ProviderToolSnapshot snapshot;
+    private final ProviderToolOptions options;
+    private final ProviderToolIndex index;
+    private final ProviderToolPhases phases;
+    private final DataOutput data;
+    private final IndentingPrinter comments;
+
+    /**
+     * When false comment text is never built.
+     */
+    private final boolean printComments;
 }
@@ -0,0 +1,583 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.set.Sets;
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
+import walkingkooka.text.CharSequences;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.IndentingPrinter;
+import walkingkooka.text.printer.Printer;
+import walkingkooka.text.printer.Printers;
+
+import javax.tools.Diagnostic;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Base class for all provider annotation processors, which passes the {@link ProviderToolOptions} to the tool.
+ */
+abstract class ProviderAnnotationProcessor extends LocaleAwareAnnotationProcessor {
+
+    ProviderAnnotationProcessor() {
+        super();
+    }
+
+    @Override
+    protected final Set<String> additionalArguments() {
+        return ProviderToolOptions.NAMES;
+    }
+
+    @Override
+    protected final Optional<String> defaultValue(final Set<String> locales,
+                                                  final Function<String, String> options) {
+        return Optional.empty();
+    }
+
+    @Override
+    protected final String generate(final String filter,
+                                    final Set<String> locales,
+                                    final Function<String, String> arguments,
+                                    final DataOutput dataOutput,
+                                    final IndentingPrinter comments) throws Exception {
+        // all options are optional so read them directly rather than through arguments.
+        final ProviderToolOptions options;
+        try {
+            options = ProviderToolOptions.with(this.processingEnv.getOptions());
+        } catch (final IllegalArgumentException invalid) {
+            this.processingEnv.getMessager()
+                    .printMessage(Diagnostic.Kind.ERROR, invalid.getMessage());
+            return "";
+        }
+        final ProviderToolPhaseEvent resolve = ProviderToolPhaseEvent.begin(
+                this.providerName(),
+                ProviderToolPhaseEvent.RESOLVE,
+                locales.size()
+        );
+        final ProviderToolSnapshot snapshot = ProviderToolSnapshot.shared(
+                this.processingEnv,
+                locales
+        );
+        resolve.end(0, 0);
+
+        if (options.localeTable()) {
+            final ProviderToolLocaleTable localeTable = snapshot.localeTable();
+            final ProviderToolLocaleTable first = ProviderToolLocaleTable.first(this.processingEnv, localeTable);
+
+            if (false == first.locales().equals(localeTable.locales())) {
+                this.processingEnv.getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.ERROR,
+                                "Option " + ProviderToolOptions.LOCALE_TABLE + " requires all providers to select the same locales, " +
+                                        ProviderToolLocaleTable.CLASS_NAME + " holds " + first + " but " + this.providerName() + " selected " + localeTable
+                        );
+                return "";
+            }
+            if (ProviderToolLocaleTable.claimSource(this.processingEnv)) {
+                this.writeSource(
+                        ProviderToolLocaleTable.CLASS_NAME,
+                        localeTable.source(ProviderToolShards.PACKAGE)
+                );
+            }
+        }
+
+        return options.metrics() ?
+                this.generateWithMetrics(filter, snapshot, options, dataOutput, comments) :
+                this.generateSelected(filter, snapshot, options, dataOutput, comments);
+    }
+
+    /**
+     * Generates while gathering {@link ProviderToolMetrics}, which are reported as a note and when a directory is
+     * selected written as JSON. The comments are captured to measure them, and then replayed. The data is measured as
+     * the escaped literal that replaces <code>$DATA</code>, which for the compact encoding is its text wrapped form,
+     * plus every side class source written by chunks, dataClass or shards.
+     */
+    private String generateWithMetrics(final String filter,
+                                       final ProviderToolSnapshot snapshot,
+                                       final ProviderToolOptions options,
+                                       final DataOutput dataOutput,
+                                       final IndentingPrinter comments) throws Exception {
+        final String provider = this.providerName();
+        final ProviderToolMetrics metrics = ProviderToolMetrics.with(provider);
+        metrics.locales(snapshot.locales().size());
+
+        final StringBuilder metricsComments = new StringBuilder();
+        final String summary;
+
+        this.metrics = metrics;
+        try (final Printer printer = Printers.stringBuilder(metricsComments, LineEnding.NL)) {
+            summary = this.generateSelected(
+                    filter,
+                    snapshot,
+                    options,
+                    new ProviderToolMetricsDataOutput(
+                            dataOutput,
+                            text -> metrics.data(CharSequences.quoteAndEscape(text).length() - 2)
+                    ),
+                    LocaleAwareAnnotationProcessor.comments(printer)
+            );
+            printer.flush();
+        } finally {
+            this.metrics = ProviderToolMetrics.NONE;
+        }
+
+        ProviderToolCache.replayComments(metricsComments.toString(), comments);
+        metrics.comments(metricsComments.length());
+
+        this.processingEnv.getMessager()
+                .printMessage(Diagnostic.Kind.NOTE, metrics.toString());
+
+        final Optional<Path> directory = options.metricsDirectory();
+        if (directory.isPresent()) {
+            Files.createDirectories(directory.get());
+            Files.write(
+                    directory.get().resolve(provider + ".json"),
+                    metrics.json().getBytes(StandardCharsets.UTF_8)
+            );
+        }
+
+        return summary;
+    }
+
+    /**
+     * Generates the data and any classes in the form selected by the options.
+     */
+    private String generateSelected(final String filter,
+                                    final ProviderToolSnapshot snapshot,
+                                    final ProviderToolOptions options,
+                                    final DataOutput dataOutput,
+                                    final IndentingPrinter comments) throws Exception {
+        if (options.chunks()) {
+            return this.generateChunks(filter, snapshot, options, comments);
+        }
+
+        if (options.dataClass()) {
+            return this.generateDataClass(filter, snapshot, options, comments);
+        }
+
+        if (options.shard()) {
+            return this.generateShards(filter, snapshot, options, dataOutput, comments);
+        }
+
+        return this.generateCached(filter, snapshot, options, dataOutput, comments);
+    }
+
+    /**
+     * Generates the encoded data, reading or updating the cache when one is selected.
+     */
+    private String generateCached(final String filter,
+                                  final ProviderToolSnapshot snapshot,
+                                  final ProviderToolOptions options,
+                                  final DataOutput dataOutput,
+                                  final IndentingPrinter comments) throws Exception {
+        final Optional<Path> cache = options.cache();
+        return cache.isPresent() ?
+                ProviderToolCache.with(cache.get())
+                        .generate(
+                                this.cacheKey(filter, snapshot.locales(), options),
+                                dataOutput,
+                                comments,
+                                (cacheData, cacheComments) -> this.generateEncoded(filter, snapshot, options, cacheData, cacheComments)
+                        ) :
+                this.generateEncoded(
+                        filter,
+                        snapshot,
+                        options,
+                        dataOutput,
+                        comments
+                );
+    }
+
+    /**
+     * Writes the data as chunks to a class where each chunk fits a class file constant, leaving <code>DATA</code> empty.
+     * When streaming side classes, the data is written to the source file as it is generated.
+     */
+    private String generateChunks(final String filter,
+                                  final ProviderToolSnapshot snapshot,
+                                  final ProviderToolOptions options,
+                                  final IndentingPrinter comments) throws Exception {
+        final String provider = this.providerName();
+        final String className = ProviderToolChunks.className(provider);
+
+        final String summary;
+        if (options.streamSideClasses()) {
+            try (final Writer writer = this.openSource(className)) {
+                final ProviderToolChunksWriter chunks = ProviderToolChunksWriter.with(
+                        writer,
+                        ProviderToolChunks.MAX_BYTES,
+                        ",\n    "
+                );
+
+                writer.write(ProviderToolChunks.sourceStart(provider));
+                writer.write("    ");
+                summary = this.generateStreamed(
+                        chunks,
+                        data -> this.generateCached(filter, snapshot, options, data, comments)
+                );
+                chunks.end();
+                writer.write(",\n");
+                writer.write(ProviderToolChunks.sourceEnd(provider));
+            }
+        } else {
+            final StringBuilder data = new StringBuilder();
+
+            summary = this.generateCached(
+                    filter,
+                    snapshot,
+                    options,
+                    StringDataInputDataOutput.output(data::append),
+                    comments
+            );
+
+            this.writeSource(
+                    className,
+                    ProviderToolChunks.source(
+                            provider,
+                            ProviderToolChunks.split(data, ProviderToolChunks.MAX_BYTES)
+                    )
+            );
+        }
+        return summary;
+    }
+
+    /**
+     * Generates to a {@link DataOutput} that escapes and writes each value to the {@link ProviderToolChunksWriter},
+     * rethrowing any {@link IOException} it fails with.
+     */
+    private String generateStreamed(final ProviderToolChunksWriter chunks,
+                                    final StreamedGenerator generator) throws Exception {
+        try {
+            return generator.generate(
+                    StringDataInputDataOutput.output(chunks::append)
+            );
+        } catch (final UncheckedIOException cause) {
+            throw cause.getCause();
+        }
+    }
+
+    /**
+     * Generates the data to the given {@link DataOutput}.
+     */
+    @FunctionalInterface
+    interface StreamedGenerator {
+        String generate(final DataOutput data) throws Exception;
+    }
+
+    /**
+     * Writes a class holding all values in typed arrays along with a switch that returns the record of a language tag,
+     * leaving <code>DATA</code> empty. The class is always generated and never cached.
+     */
+    private String generateDataClass(final String filter,
+                                     final ProviderToolSnapshot snapshot,
+                                     final ProviderToolOptions options,
+                                     final IndentingPrinter comments) throws Exception {
+        final String provider = this.providerName();
+        final ProviderToolDataClass dataClass = ProviderToolDataClass.empty();
+        final ProviderToolIndex index = ProviderToolIndex.with(dataClass::count);
+
+        final String summary = this.generate(
+                filter,
+                snapshot,
+                options,
+                index,
+                this.metrics,
+                dataClass,
+                comments
+        );
+
+        this.writeSource(
+                ProviderToolDataClass.className(provider),
+                dataClass.source(provider, ProviderToolShards.PACKAGE, index)
+        );
+        return summary;
+    }
+
+    /**
+     * Writes a class holding the data for each language, and a dispatch class that returns the data of a language.
+     * The data of the provider holds the shard names. Shards are always generated and never cached, as the cache only
+     * holds the provider data.
+     */
+    private String generateShards(final String filter,
+                                  final ProviderToolSnapshot snapshot,
+                                  final ProviderToolOptions options,
+                                  final DataOutput dataOutput,
+                                  final IndentingPrinter comments) throws Exception {
+        final String provider = this.providerName();
+        final Map<String, Set<Locale>> shardToLocales = ProviderToolShards.group(snapshot.locales());
+        final IndentingPrinter providerComments = options.comments(comments);
+
+        dataOutput.writeInt(shardToLocales.size());
+        providerComments.lineStart();
+        providerComments.print("shards=" + shardToLocales.size());
+        providerComments.indent();
+
+        for (final Entry<String, Set<Locale>> shardAndLocales : shardToLocales.entrySet()) {
+            final String shard = shardAndLocales.getKey();
+            final Set<Locale> locales = shardAndLocales.getValue();
+
+            if (options.streamSideClasses()) {
+                this.generateShardStreamed(filter, snapshot.subset(locales), options, provider, shard);
+            } else {
+                this.generateShard(filter, snapshot.subset(locales), options, provider, shard);
+            }
+
+            dataOutput.writeUTF(shard);
+            providerComments.lineStart();
+            providerComments.print(
+                    shard + "=" +
+                            locales.stream()
+                                    .map(Locale::toLanguageTag)
+                                    .collect(Collectors.joining(", "))
+            );
+        }
+        providerComments.outdent();
+
+        this.writeSource(
+                ProviderToolShards.dispatchClassName(provider),
+                ProviderToolShards.dispatchSource(provider, shardToLocales.keySet())
+        );
+
+        return LocaleAwareAnnotationProcessorTool.extractSummary(snapshot.locales().size(),
+                "Locale",
+                filter);
+    }
+
+    /**
+     * Builds the data and comments of a shard, then writes its source file.
+     */
+    private void generateShard(final String filter,
+                               final ProviderToolSnapshot snapshot,
+                               final ProviderToolOptions options,
+                               final String provider,
+                               final String shard) throws Exception {
+        final StringBuilder shardData = new StringBuilder();
+        final StringBuilder shardComments = new StringBuilder();
+        try (final Printer printer = Printers.stringBuilder(shardComments, LineEnding.NL)) {
+            this.generateEncoded(
+                    filter,
+                    snapshot,
+                    options,
+                    StringDataInputDataOutput.output(shardData::append),
+                    LocaleAwareAnnotationProcessor.comments(printer)
+            );
+            printer.print(LineEnding.NL);
+            printer.flush();
+        }
+
+        this.writeSource(
+                ProviderToolShards.shardClassName(provider, shard),
+                ProviderToolShards.shardSource(provider, shard, shardComments, shardData)
+        );
+    }
+
+    /**
+     * Writes the data of a shard to its source file as it is generated, followed by its comments.
+     */
+    private void generateShardStreamed(final String filter,
+                                       final ProviderToolSnapshot snapshot,
+                                       final ProviderToolOptions options,
+                                       final String provider,
+                                       final String shard) throws Exception {
+        final StringBuilder shardComments = new StringBuilder();
+
+        try (final Writer writer = this.openSource(ProviderToolShards.shardClassName(provider, shard));
+             final Printer printer = Printers.stringBuilder(shardComments, LineEnding.NL)) {
+            final ProviderToolChunksWriter chunks = ProviderToolChunksWriter.with(
+                    writer,
+                    ProviderToolChunks.MAX_BYTES,
+                    "," + ProviderToolShards.SHARD_SEPARATOR
+            );
+
+            writer.write(ProviderToolShards.shardSourceStart(provider, shard));
+            this.generateStreamed(
+                    chunks,
+                    data -> this.generateEncoded(
+                            filter,
+                            snapshot,
+                            options,
+                            data,
+                            LocaleAwareAnnotationProcessor.comments(printer)
+                    )
+            );
+            chunks.end();
+
+            printer.print(LineEnding.NL);
+            printer.flush();
+            writer.write(ProviderToolShards.shardSourceEnd(shardComments));
+        }
+    }
+
+    /**
+     * The simple name of the generated provider, eg <code>DecimalFormatProvider</code>.
+     */
+    private String providerName() {
+        return this.getClass().getSimpleName().replace("AnnotationProcessor", "");
+    }
+
+    /**
+     * Writes a generated source file once, later rounds that generate the same class are ignored.
+     */
+    private void writeSource(final String simpleName,
+                             final String source) throws IOException {
+        try (final Writer writer = this.openSource(simpleName)) {
+            writer.write(source);
+        }
+    }
+
+    /**
+     * Opens the {@link Writer} of a generated source file, returning one that ignores everything when the file was
+     * already written by an earlier round. The chars written are added to the data of any {@link ProviderToolMetrics}.
+     */
+    private Writer openSource(final String simpleName) throws IOException {
+        final Writer writer = this.written.add(simpleName) ?
+                this.processingEnv.getFiler()
+                        .createSourceFile(ProviderToolShards.PACKAGE + "." + simpleName)
+                        .openWriter() :
+                Writer.nullWriter();
+        final ProviderToolMetrics metrics = this.metrics;
+
+        return ProviderToolMetrics.NONE == metrics ?
+                writer :
+                new ProviderToolMetricsWriter(writer, metrics::data);
+    }
+
+    /**
+     * The simple names of all written source files.
+     */
+    private final Set<String> written = Sets.hash();
+
+    /**
+     * The metrics of the provider being generated, which ignores everything unless metrics are selected.
+     */
+    private ProviderToolMetrics metrics = ProviderToolMetrics.NONE;
+
+    /**
+     * When an encoding other than {@link ProviderToolEncoding#TEXT} is selected, the tool writes to that encoding and the
+     * result is written as a single UTF string, as <code>DATA</code> is always written through the text
+     * {@link DataOutput} given by the base processor. The compact digits contain no separator or escape char, so this
+     * only escapes the chars of strings, exactly as the text encoding would. When an index is selected the tool writes
+     * to a body, which is written after the index header.
+     */
+    private String generateEncoded(final String filter,
+                                   final ProviderToolSnapshot snapshot,
+                                   final ProviderToolOptions options,
+                                   final DataOutput dataOutput,
+                                   final IndentingPrinter comments) throws Exception {
+        final ProviderToolEncoding encoding = options.encoding();
+
+        final StringBuilder data = new StringBuilder();
+        final DataOutput encodedDataOutput = ProviderToolEncoding.TEXT == encoding ?
+                dataOutput :
+                encoding.output(data);
+
+        final String summary;
+        if (options.index()) {
+            final StringBuilder body = new StringBuilder();
+            final ProviderToolIndex index = ProviderToolIndex.with(encoding, body, options.hash());
+            summary = this.generate(
+                    filter,
+                    snapshot,
+                    options,
+                    index,
+                    this.metrics,
+                    encoding.output(body),
+                    comments
+            );
+            index.generate(
+                    encodedDataOutput,
+                    options.comments(comments)
+            );
+        } else {
+            summary = this.generate(
+                    filter,
+                    snapshot,
+                    options,
+                    ProviderToolIndex.NONE,
+                    this.metrics,
+                    encodedDataOutput,
+                    comments
+            );
+        }
+
+        if (ProviderToolEncoding.TEXT != encoding) {
+            dataOutput.writeUTF(data.toString());
+        }
+        return summary;
+    }
+
+    /**
+     * The generated output only depends on the processor, the JRE locale data, the selected locales and options.
+     */
+    private String cacheKey(final String filter,
+                            final Set<Locale> locales,
+                            final ProviderToolOptions options) {
+        return this.getClass().getName() + "\n" +
+                processorVersion() + "\n" +
+                System.getProperty("java.vendor") + "\n" +
+                System.getProperty("java.runtime.version") + "\n" +
+                System.getProperty("java.locale.providers", "") + "\n" +
+                filter + "\n" +
+                locales.stream()
+                        .map(Locale::toLanguageTag)
+                        .collect(Collectors.joining(",")) + "\n" +
+                options.cacheKey();
+    }
+
+    /**
+     * Uses the size and last modified of the jar or directory holding this processor, so rebuilt snapshots are not
+     * confused with older entries.
+     */
+    private static String processorVersion() {
+        String version;
+        try {
+            final CodeSource codeSource = ProviderAnnotationProcessor.class.getProtectionDomain().getCodeSource();
+            final Path path = Paths.get(codeSource.getLocation().toURI());
+            version = path + " " + Files.size(path) + " " + Files.getLastModifiedTime(path);
+        } catch (final Exception cause) {
+            version = "";
+        }
+        return version;
+    }
+
+    /**
+     * Sub classes should invoke their tool.
+     */
+    abstract String generate(final String filter,
+                             final ProviderToolSnapshot snapshot,
+                             final ProviderToolOptions options,
+                             final ProviderToolIndex index,
+                             final ProviderToolMetrics metrics,
+                             final DataOutput dataOutput,
+                             final IndentingPrinter comments) throws Exception;
+}
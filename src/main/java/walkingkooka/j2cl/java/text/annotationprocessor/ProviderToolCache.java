@@ -0,0 +1,269 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.IndentingPrinter;
+import walkingkooka.text.printer.Printer;
+import walkingkooka.text.printer.Printers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A content addressed directory holding previously generated data and comments. Each entry is a journal of every
+ * {@link DataOutput} call along with the comments, which are replayed into the real outputs. A miss generates into a
+ * journal, saves it and then replays it, so hits and misses always produce the same output.
+ */
+final class ProviderToolCache {
+
+    /**
+     * Increase when the journal format or any tool changes the data it generates.
+     */
+    private final static int VERSION = 1;
+
+    private final static String MAGIC = "walkingkooka-j2cl-java-text-annotation-processor-cache";
+
+    /**
+     * Generates the data and comments for a single provider.
+     */
+    @FunctionalInterface
+    interface Generator {
+        String generate(final DataOutput data,
+                        final IndentingPrinter comments) throws Exception;
+    }
+
+    static ProviderToolCache with(final Path directory) {
+        return new ProviderToolCache(directory);
+    }
+
+    private ProviderToolCache(final Path directory) {
+        super();
+        this.directory = directory;
+    }
+
+    /**
+     * Replays the entry for the given key if one exists otherwise calls the {@link Generator} and saves the result.
+     */
+    String generate(final String key,
+                    final DataOutput data,
+                    final IndentingPrinter comments,
+                    final Generator generator) throws Exception {
+        final Path file = this.directory.resolve(sha256(key) + ".cache");
+
+        byte[] entry = read(file);
+        if (null == entry) {
+            entry = record(generator);
+            this.save(file, entry);
+        }
+
+        return replay(entry, data, comments);
+    }
+
+    /**
+     * Reads a previous entry returning null if none exists or it cannot be read. A corrupt entry is deleted so it is
+     * regenerated and saved again.
+     */
+    private static byte[] read(final Path file) {
+        byte[] entry;
+        try {
+            entry = Files.isRegularFile(file) ?
+                    Files.readAllBytes(file) :
+                    null;
+            if (null != entry) {
+                // verify the entry is complete before any replaying happens.
+                replay(entry, null, null);
+            }
+        } catch (final IOException | RuntimeException corrupt) {
+            entry = null;
+            delete(file);
+        }
+        return entry;
+    }
+
+    private static void delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException ignore) {
+            // the entry is replaced when the regenerated entry is saved
+        }
+    }
+
+    private static byte[] record(final Generator generator) throws Exception {
+        final StringBuilder comments = new StringBuilder();
+        final ByteArrayOutputStream ops = new ByteArrayOutputStream();
+        final ProviderToolCacheDataOutput data = new ProviderToolCacheDataOutput(new DataOutputStream(ops));
+
+        final String summary;
+        try (final Printer printer = Printers.stringBuilder(comments, LineEnding.NL)) {
+            summary = generator.generate(
+                    data,
+                    LocaleAwareAnnotationProcessor.comments(printer)
+            );
+            printer.flush();
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream entry = new DataOutputStream(bytes)) {
+            entry.writeUTF(MAGIC);
+            entry.writeInt(VERSION);
+            writeString(summary, entry);
+            writeString(comments.toString(), entry);
+            entry.writeInt(data.count);
+            ops.writeTo(entry);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes to a temporary file and then moves it so readers never see a partial entry.
+     */
+    private void save(final Path file,
+                      final byte[] entry) throws IOException {
+        Files.createDirectories(this.directory);
+
+        final Path temp = Files.createTempFile(this.directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, entry);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException notSupported) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Replays the entry into the data and comments, when both are null the entry is only verified.
+     */
+    private static String replay(final byte[] entry,
+                                 final DataOutput data,
+                                 final IndentingPrinter comments) throws IOException {
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(entry));
+        if (false == MAGIC.equals(input.readUTF()) || VERSION != input.readInt()) {
+            throw new IOException("Invalid cache entry");
+        }
+        final String summary = readString(input);
+        final String text = readString(input);
+
+        // every recorded call takes at least its tag byte
+        final int count = readLength(input, 1);
+        for (int i = 0; i < count; i++) {
+            ProviderToolCacheDataOutput.replay(input, data);
+        }
+        if (input.read() != -1) {
+            throw new IOException("Invalid cache entry, extra bytes");
+        }
+
+        if (null != comments) {
+            replayComments(text, comments);
+        }
+        return summary;
+    }
+
+    /**
+     * Prints each of the recorded comment lines, after removing the comment prefix that will be added again.
+     */
+    static void replayComments(final String text,
+                               final IndentingPrinter comments) {
+        final String[] lines = text.split("\n", -1);
+        final int last = lines.length - 1;
+
+        for (int i = 0; i <= last; i++) {
+            String line = lines[i];
+            if (line.startsWith(COMMENT)) {
+                line = line.substring(COMMENT.length());
+                if (line.startsWith(" ")) {
+                    line = line.substring(1);
+                }
+            }
+            comments.print(line);
+
+            if (i < last) {
+                comments.print(comments.lineEnding());
+            }
+        }
+    }
+
+    private final static String COMMENT = "//";
+
+    static void writeString(final String string,
+                            final DataOutput data) throws IOException {
+        data.writeInt(string.length());
+        data.writeChars(string);
+    }
+
+    static String readString(final DataInputStream input) throws IOException {
+        final int length = readLength(input, 2);
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = input.readChar();
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Reads a length, failing if it is negative or more than the remaining bytes of the entry could hold, so a corrupt
+     * length never allocates a huge or negative array.
+     */
+    static int readLength(final DataInputStream input,
+                          final int bytesPerElement) throws IOException {
+        final int length = input.readInt();
+        if (length < 0 || (long) length * bytesPerElement > input.available()) {
+            throw new IOException("Invalid cache entry, length " + length);
+        }
+        return length;
+    }
+
+    private static String sha256(final String key) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(key.getBytes(StandardCharsets.UTF_8));
+
+            final StringBuilder hex = new StringBuilder();
+            for (final byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16));
+                hex.append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (final NoSuchAlgorithmException cause) {
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    private final Path directory;
+
+    @Override
+    public String toString() {
+        return this.directory.toString();
+    }
+}
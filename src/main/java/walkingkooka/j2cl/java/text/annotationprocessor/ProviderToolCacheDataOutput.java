@@ -0,0 +1,256 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A {@link DataOutput} that records each call with a tag, so it may be replayed later by {@link #replay(DataInputStream, DataOutput)}.
+ */
+final class ProviderToolCacheDataOutput implements DataOutput {
+
+    private final static int WRITE = 'W';
+    private final static int WRITE_BYTES_ARRAY = 'A';
+    private final static int WRITE_BOOLEAN = 'Z';
+    private final static int WRITE_BYTE = 'B';
+    private final static int WRITE_SHORT = 'S';
+    private final static int WRITE_CHAR = 'C';
+    private final static int WRITE_INT = 'I';
+    private final static int WRITE_LONG = 'J';
+    private final static int WRITE_FLOAT = 'F';
+    private final static int WRITE_DOUBLE = 'D';
+    private final static int WRITE_BYTES = 'T';
+    private final static int WRITE_CHARS = 'H';
+    private final static int WRITE_UTF = 'U';
+
+    ProviderToolCacheDataOutput(final DataOutputStream journal) {
+        super();
+        this.journal = journal;
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        this.tag(WRITE);
+        this.journal.writeInt(value);
+    }
+
+    @Override
+    public void write(final byte[] bytes) throws IOException {
+        this.write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void write(final byte[] bytes,
+                      final int offset,
+                      final int length) throws IOException {
+        this.tag(WRITE_BYTES_ARRAY);
+        this.journal.writeInt(length);
+        this.journal.write(bytes, offset, length);
+    }
+
+    @Override
+    public void writeBoolean(final boolean value) throws IOException {
+        this.tag(WRITE_BOOLEAN);
+        this.journal.writeBoolean(value);
+    }
+
+    @Override
+    public void writeByte(final int value) throws IOException {
+        this.tag(WRITE_BYTE);
+        this.journal.writeInt(value);
+    }
+
+    @Override
+    public void writeShort(final int value) throws IOException {
+        this.tag(WRITE_SHORT);
+        this.journal.writeInt(value);
+    }
+
+    @Override
+    public void writeChar(final int value) throws IOException {
+        this.tag(WRITE_CHAR);
+        this.journal.writeInt(value);
+    }
+
+    @Override
+    public void writeInt(final int value) throws IOException {
+        this.tag(WRITE_INT);
+        this.journal.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(final long value) throws IOException {
+        this.tag(WRITE_LONG);
+        this.journal.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(final float value) throws IOException {
+        this.tag(WRITE_FLOAT);
+        this.journal.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(final double value) throws IOException {
+        this.tag(WRITE_DOUBLE);
+        this.journal.writeDouble(value);
+    }
+
+    @Override
+    public void writeBytes(final String value) throws IOException {
+        this.tag(WRITE_BYTES);
+        ProviderToolCache.writeString(value, this.journal);
+    }
+
+    @Override
+    public void writeChars(final String value) throws IOException {
+        this.tag(WRITE_CHARS);
+        ProviderToolCache.writeString(value, this.journal);
+    }
+
+    @Override
+    public void writeUTF(final String value) throws IOException {
+        this.tag(WRITE_UTF);
+        ProviderToolCache.writeString(value, this.journal);
+    }
+
+    private void tag(final int tag) throws IOException {
+        this.journal.writeByte(tag);
+        this.count++;
+    }
+
+    private final DataOutputStream journal;
+
+    /**
+     * The number of calls recorded.
+     */
+    int count;
+
+    /**
+     * Reads a single recorded call and repeats it upon the given {@link DataOutput}, which may be null if the journal
+     * is only being verified.
+     */
+    static void replay(final DataInputStream journal,
+                       final DataOutput data) throws IOException {
+        final int tag = journal.readByte();
+        switch (tag) {
+            case WRITE: {
+                final int value = journal.readInt();
+                if (null != data) {
+                    data.write(value);
+                }
+                break;
+            }
+            case WRITE_BYTES_ARRAY: {
+                final byte[] bytes = new byte[ProviderToolCache.readLength(journal, 1)];
+                journal.readFully(bytes);
+                if (null != data) {
+                    data.write(bytes);
+                }
+                break;
+            }
+            case WRITE_BOOLEAN: {
+                final boolean value = journal.readBoolean();
+                if (null != data) {
+                    data.writeBoolean(value);
+                }
+                break;
+            }
+            case WRITE_BYTE: {
+                final int value = journal.readInt();
+                if (null != data) {
+                    data.writeByte(value);
+                }
+                break;
+            }
+            case WRITE_SHORT: {
+                final int value = journal.readInt();
+                if (null != data) {
+                    data.writeShort(value);
+                }
+                break;
+            }
+            case WRITE_CHAR: {
+                final int value = journal.readInt();
+                if (null != data) {
+                    data.writeChar(value);
+                }
+                break;
+            }
+            case WRITE_INT: {
+                final int value = journal.readInt();
+                if (null != data) {
+                    data.writeInt(value);
+                }
+                break;
+            }
+            case WRITE_LONG: {
+                final long value = journal.readLong();
+                if (null != data) {
+                    data.writeLong(value);
+                }
+                break;
+            }
+            case WRITE_FLOAT: {
+                final float value = journal.readFloat();
+                if (null != data) {
+                    data.writeFloat(value);
+                }
+                break;
+            }
+            case WRITE_DOUBLE: {
+                final double value = journal.readDouble();
+                if (null != data) {
+                    data.writeDouble(value);
+                }
+                break;
+            }
+            case WRITE_BYTES: {
+                final String value = ProviderToolCache.readString(journal);
+                if (null != data) {
+                    data.writeBytes(value);
+                }
+                break;
+            }
+            case WRITE_CHARS: {
+                final String value = ProviderToolCache.readString(journal);
+                if (null != data) {
+                    data.writeChars(value);
+                }
+                break;
+            }
+            case WRITE_UTF: {
+                final String value = ProviderToolCache.readString(journal);
+                if (null != data) {
+                    data.writeUTF(value);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown cache journal tag " + tag);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.count + " call(s)";
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.text.CharSequences;
+
+import java.util.List;
+
+/**
+ * Splits <code>DATA</code> into chunks that each fit a class file constant, which holds at most 65535 bytes of modified
+ * UTF-8, and builds the source of the class holding the chunks.
+ */
+final class ProviderToolChunks {
+
+    /**
+     * The maximum length in bytes of the modified UTF-8 form of a string constant.
+     */
+    final static int MAX_BYTES = 65535;
+
+    /**
+     * Splits the data into chunks whose modified UTF-8 form is no longer than the given bytes. A surrogate pair is never
+     * split. Empty data returns a single empty chunk.
+     */
+    static List<String> split(final CharSequence data,
+                              final int maxBytes) {
+        final List<String> chunks = Lists.array();
+        final int length = data.length();
+
+        int start = 0;
+        int bytes = 0;
+        int i = 0;
+        while (i < length) {
+            final char c = data.charAt(i);
+            final int width = Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(data.charAt(i + 1)) ?
+                    2 :
+                    1;
+            final int charBytes = 2 == width ?
+                    6 :
+                    utf8Length(c);
+
+            if (bytes + charBytes > maxBytes) {
+                chunks.add(data.subSequence(start, i).toString());
+                start = i;
+                bytes = 0;
+            }
+            bytes += charBytes;
+            i += width;
+        }
+        chunks.add(data.subSequence(start, length).toString());
+
+        return chunks;
+    }
+
+    /**
+     * The length of a single char in modified UTF-8, where <code>NUL</code> takes two bytes.
+     */
+    static int utf8Length(final char c) {
+        final int length;
+        if (0 == c) {
+            length = 2;
+        } else if (c < 0x80) {
+            length = 1;
+        } else if (c < 0x800) {
+            length = 2;
+        } else {
+            length = 3;
+        }
+        return length;
+    }
+
+    /**
+     * The simple name of the class holding the chunks, eg <code>DecimalFormatProviderChunks</code>.
+     */
+    static String className(final String provider) {
+        return provider + "Chunks";
+    }
+
+    /**
+     * Builds the source of the class holding the chunks, which a decoder may read one at a time, and a method that
+     * joins them once on first use.
+     */
+    static String source(final String provider,
+                         final List<String> chunks) {
+        final StringBuilder source = new StringBuilder();
+
+        source.append(sourceStart(provider));
+
+        for (final String chunk : chunks) {
+            source.append("    " + CharSequences.quoteAndEscape(chunk) + ",\n");
+        }
+
+        source.append(sourceEnd(provider));
+
+        return source.toString();
+    }
+
+    /**
+     * The source before the first chunk, also used when chunks are streamed by {@link ProviderToolChunksWriter}.
+     */
+    static String sourceStart(final String provider) {
+        return "package " + ProviderToolShards.PACKAGE + ";\n" +
+                "\n" +
+                "public final class " + className(provider) + " {\n" +
+                "\n" +
+                "  public final static String[] CHUNKS = {\n";
+    }
+
+    /**
+     * The source after the last chunk.
+     */
+    static String sourceEnd(final String provider) {
+        final String className = className(provider);
+
+        return "  };\n" +
+                "\n" +
+                "  private static String data;\n" +
+                "\n" +
+                "  public static String data() {\n" +
+                "    String data = " + className + ".data;\n" +
+                "    if (null == data) {\n" +
+                "      final StringBuilder b = new StringBuilder();\n" +
+                "      for (final String chunk : CHUNKS) {\n" +
+                "        b.append(chunk);\n" +
+                "      }\n" +
+                "      data = b.toString();\n" +
+                "      " + className + ".data = data;\n" +
+                "    }\n" +
+                "    return data;\n" +
+                "  }\n" +
+                "\n" +
+                "  private " + className + "() {\n" +
+                "    throw new UnsupportedOperationException();\n" +
+                "  }\n" +
+                "}\n";
+    }
+
+    /**
+     * Stop creation
+     */
+    private ProviderToolChunks() {
+        throw new UnsupportedOperationException();
+    }
+}
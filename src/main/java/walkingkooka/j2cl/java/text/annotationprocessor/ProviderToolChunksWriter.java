@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.text.CharSequences;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes text as it is generated to a {@link Writer} as Java string literals escaped by
+ * {@link CharSequences#quoteAndEscape(CharSequence)}, starting a new literal whenever the current one would no longer fit
+ * a class file constant, so no more than one chunk of the text is held in memory.
+ */
+final class ProviderToolChunksWriter {
+
+    /**
+     * Creates a writer where each literal is separated by the separator, eg <code>",\n    "</code>.
+     */
+    static ProviderToolChunksWriter with(final Writer writer,
+                                         final int maxBytes,
+                                         final String separator) {
+        return new ProviderToolChunksWriter(writer, maxBytes, separator);
+    }
+
+    private ProviderToolChunksWriter(final Writer writer,
+                                     final int maxBytes,
+                                     final String separator) {
+        super();
+        this.writer = writer;
+        this.maxBytes = maxBytes;
+        this.separator = separator;
+    }
+
+    /**
+     * Appends the text to the current chunk, writing the chunk first if the text would not fit, failing with an
+     * {@link UncheckedIOException} so it may be used as the target of a
+     * {@link walkingkooka.j2cl.java.io.string.StringDataInputDataOutput}.
+     */
+    void append(final CharSequence text) {
+        try {
+            final StringBuilder chunk = this.chunk;
+            final int length = text.length();
+
+            for (int i = 0; i < length; i++) {
+                final char c = text.charAt(i);
+
+                // room for both halves of a surrogate pair is reserved by the high surrogate
+                if (false == Character.isLowSurrogate(c)) {
+                    final int needed = Character.isHighSurrogate(c) ?
+                            6 :
+                            ProviderToolChunks.utf8Length(c);
+                    if (this.bytes + needed > this.maxBytes) {
+                        this.writeChunk();
+                        this.writer.write(this.separator);
+                    }
+                }
+                this.bytes += ProviderToolChunks.utf8Length(c);
+
+                chunk.append(c);
+            }
+        } catch (final IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+    }
+
+    /**
+     * Writes the last chunk.
+     */
+    void end() throws IOException {
+        this.writeChunk();
+    }
+
+    private void writeChunk() throws IOException {
+        final StringBuilder chunk = this.chunk;
+
+        this.writer.write(
+                CharSequences.quoteAndEscape(chunk)
+                        .toString()
+        );
+        chunk.setLength(0);
+        this.bytes = 0;
+    }
+
+    private final Writer writer;
+
+    private final int maxBytes;
+
+    private final String separator;
+
+    /**
+     * The text of the current chunk.
+     */
+    private final StringBuilder chunk = new StringBuilder();
+
+    /**
+     * The modified UTF-8 length of the current chunk.
+     */
+    private int bytes;
+
+    @Override
+    public String toString() {
+        return this.writer.toString();
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.text.CharSequences;
+
+import java.io.DataOutput;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+/**
+ * A {@link DataOutput} that keeps every value in a typed column, so that a class may be generated instead of a
+ * <code>DATA</code> string. Each record gets its own method per column returning only its values, and a switch per
+ * column selects the method of a record. A caller passing a constant language tag lets a compiler such as Closure fold
+ * the switches and prune the methods of every other record. Bytes and shorts are kept as ints, and the bytes and chars
+ * of a {@link String} as individual ints and chars, as a reader reads each of them individually.
+ */
+final class ProviderToolDataClass implements DataOutput {
+
+    static ProviderToolDataClass empty() {
+        return new ProviderToolDataClass();
+    }
+
+    private ProviderToolDataClass() {
+        super();
+    }
+
+    /**
+     * The simple name of the generated class, eg <code>DecimalFormatProviderData</code>.
+     */
+    static String className(final String provider) {
+        return provider + "Data";
+    }
+
+    /**
+     * The number of values written to all columns, which is used as the position of a record.
+     */
+    int count() {
+        return this.columns.size();
+    }
+
+    // DataOutput.......................................................................................................
+
+    @Override
+    public void write(final int value) {
+        this.writeByte(value);
+    }
+
+    @Override
+    public void write(final byte[] bytes) {
+        this.write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void write(final byte[] bytes,
+                      final int offset,
+                      final int length) {
+        for (int i = 0; i < length; i++) {
+            this.writeByte(bytes[offset + i]);
+        }
+    }
+
+    @Override
+    public void writeBoolean(final boolean value) {
+        this.add(this.booleans, value);
+    }
+
+    @Override
+    public void writeByte(final int value) {
+        this.writeInt((byte) value);
+    }
+
+    @Override
+    public void writeShort(final int value) {
+        this.writeInt((short) value);
+    }
+
+    @Override
+    public void writeChar(final int value) {
+        this.add(this.chars, (char) value);
+    }
+
+    @Override
+    public void writeInt(final int value) {
+        this.add(this.ints, value);
+    }
+
+    @Override
+    public void writeLong(final long value) {
+        this.add(this.longs, value);
+    }
+
+    @Override
+    public void writeFloat(final float value) {
+        this.add(this.floats, value);
+    }
+
+    @Override
+    public void writeDouble(final double value) {
+        this.add(this.doubles, value);
+    }
+
+    @Override
+    public void writeBytes(final String value) {
+        for (final char c : value.toCharArray()) {
+            this.writeByte(c);
+        }
+    }
+
+    @Override
+    public void writeChars(final String value) {
+        for (final char c : value.toCharArray()) {
+            this.writeChar(c);
+        }
+    }
+
+    @Override
+    public void writeUTF(final String value) {
+        this.add(this.strings, value);
+    }
+
+    private <T> void add(final ProviderToolDataClassColumn<T> column,
+                         final T value) {
+        this.columns.add(column);
+        column.values.add(value);
+    }
+
+    /**
+     * The column of every value in the order they were written.
+     */
+    private final List<ProviderToolDataClassColumn<?>> columns = Lists.array();
+
+    private final ProviderToolDataClassColumn<Boolean> booleans = ProviderToolDataClassColumn.with("boolean", "booleans", String::valueOf);
+    private final ProviderToolDataClassColumn<Character> chars = ProviderToolDataClassColumn.with("char", "chars", c -> CharSequences.quoteAndEscape(c).toString());
+    private final ProviderToolDataClassColumn<Integer> ints = ProviderToolDataClassColumn.with("int", "ints", String::valueOf);
+    private final ProviderToolDataClassColumn<Long> longs = ProviderToolDataClassColumn.with("long", "longs", ProviderToolDataClass::longLiteral);
+    private final ProviderToolDataClassColumn<Float> floats = ProviderToolDataClassColumn.with("float", "floats", ProviderToolDataClass::floatLiteral);
+    private final ProviderToolDataClassColumn<Double> doubles = ProviderToolDataClassColumn.with("double", "doubles", ProviderToolDataClass::doubleLiteral);
+    private final ProviderToolDataClassColumn<String> strings = ProviderToolDataClassColumn.with("String", "strings", s -> CharSequences.quoteAndEscape(s).toString());
+
+    // source...........................................................................................................
+
+    /**
+     * Builds the source of a class with a switch that returns the record of a language tag, and for every column that
+     * holds values a method returning the values written before the first record, a switch returning the values of a
+     * record and a method per record.
+     */
+    String source(final String provider,
+                  final String generatedPackage,
+                  final ProviderToolIndex index) {
+        final StringBuilder source = new StringBuilder();
+
+        source.append("package " + generatedPackage + ";\n")
+                .append("\n")
+                .append("public final class " + className(provider) + " {\n")
+                .append("\n")
+                .append("  public static int record(final String languageTag) {\n")
+                .append("    final int record;\n")
+                .append("\n")
+                .append("    switch (languageTag) {\n");
+
+        for (final Entry<String, Integer> tagAndRecord : index.tagToRecord().entrySet()) {
+            source.append("      case " + CharSequences.quoteAndEscape(tagAndRecord.getKey()) + ":\n")
+                    .append("        record = " + tagAndRecord.getValue() + ";\n")
+                    .append("        break;\n");
+        }
+
+        source.append("      default:\n")
+                .append("        record = -1;\n")
+                .append("        break;\n")
+                .append("    }\n")
+                .append("\n")
+                .append("    return record;\n")
+                .append("  }\n");
+
+        final List<Integer> offsets = index.offsets();
+        this.column(source, this.booleans, offsets);
+        this.column(source, this.chars, offsets);
+        this.column(source, this.ints, offsets);
+        this.column(source, this.longs, offsets);
+        this.column(source, this.floats, offsets);
+        this.column(source, this.doubles, offsets);
+        this.column(source, this.strings, offsets);
+
+        source.append("}\n");
+
+        return source.toString();
+    }
+
+    /**
+     * Writes the header method, record switch and a method for each record of a column, skipping a column that no
+     * value was written to.
+     */
+    private <T> void column(final StringBuilder source,
+                            final ProviderToolDataClassColumn<T> column,
+                            final List<Integer> offsets) {
+        if (false == column.values.isEmpty()) {
+            final String type = column.type;
+            final String name = column.name;
+            final int recordCount = offsets.size();
+
+            // split the values of the column by the record they were written to, the first holds the header.
+            final List<List<T>> records = Lists.array();
+            records.add(Lists.array());
+
+            int value = 0;
+            for (int position = 0; position < this.columns.size(); position++) {
+                while (records.size() <= recordCount && position == offsets.get(records.size() - 1)) {
+                    records.add(Lists.array());
+                }
+                if (column == this.columns.get(position)) {
+                    records.get(records.size() - 1).add(column.values.get(value));
+                    value++;
+                }
+            }
+            while (records.size() <= recordCount) {
+                records.add(Lists.array());
+            }
+
+            source.append("\n");
+            this.values(
+                    source,
+                    "public",
+                    "header" + Character.toUpperCase(name.charAt(0)) + name.substring(1),
+                    column,
+                    records.get(0)
+            );
+
+            source.append("\n")
+                    .append("  public static " + type + "[] " + name + "(final int record) {\n")
+                    .append("    final " + type + "[] values;\n")
+                    .append("\n")
+                    .append("    switch (record) {\n");
+            for (int record = 0; record < recordCount; record++) {
+                source.append("      case " + record + ":\n")
+                        .append("        values = " + name + record + "();\n")
+                        .append("        break;\n");
+            }
+            source.append("      default:\n")
+                    .append("        values = null;\n")
+                    .append("        break;\n")
+                    .append("    }\n")
+                    .append("\n")
+                    .append("    return values;\n")
+                    .append("  }\n");
+
+            for (int record = 0; record < recordCount; record++) {
+                source.append("\n");
+                this.values(
+                        source,
+                        "private",
+                        name + record,
+                        column,
+                        records.get(record + 1)
+                );
+            }
+        }
+    }
+
+    /**
+     * Writes a method returning the given values, which are assigned by methods of {@link #CHUNK} values when there
+     * are more, keeping each method below the class file method size limit.
+     */
+    private <T> void values(final StringBuilder source,
+                            final String visibility,
+                            final String method,
+                            final ProviderToolDataClassColumn<T> column,
+                            final List<T> values) {
+        final String type = column.type;
+        final Function<T, String> literal = column.literal;
+        final int count = values.size();
+
+        source.append("  " + visibility + " static " + type + "[] " + method + "() {\n");
+
+        if (count <= CHUNK) {
+            source.append("    return new " + type + "[]{");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    source.append(", ");
+                }
+                source.append(literal.apply(values.get(i)));
+            }
+            source.append("};\n")
+                    .append("  }\n");
+        } else {
+            final int chunks = (count + CHUNK - 1) / CHUNK;
+
+            source.append("    final " + type + "[] values = new " + type + "[" + count + "];\n");
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                source.append("    " + method + "Chunk" + chunk + "(values);\n");
+            }
+            source.append("    return values;\n")
+                    .append("  }\n");
+
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                source.append("\n")
+                        .append("  private static void " + method + "Chunk" + chunk + "(final " + type + "[] values) {\n");
+
+                final int end = Math.min(count, (chunk + 1) * CHUNK);
+                for (int i = chunk * CHUNK; i < end; i++) {
+                    source.append("    values[" + i + "] = " + literal.apply(values.get(i)) + ";\n");
+                }
+                source.append("  }\n");
+            }
+        }
+    }
+
+    private final static int CHUNK = 1000;
+
+    static String longLiteral(final long value) {
+        return value + "L";
+    }
+
+    static String floatLiteral(final float value) {
+        final String literal;
+        if (Float.isNaN(value)) {
+            literal = "Float.NaN";
+        } else {
+            if (Float.isInfinite(value)) {
+                literal = value > 0 ?
+                        "Float.POSITIVE_INFINITY" :
+                        "Float.NEGATIVE_INFINITY";
+            } else {
+                literal = value + "F";
+            }
+        }
+        return literal;
+    }
+
+    static String doubleLiteral(final double value) {
+        final String literal;
+        if (Double.isNaN(value)) {
+            literal = "Double.NaN";
+        } else {
+            if (Double.isInfinite(value)) {
+                literal = value > 0 ?
+                        "Double.POSITIVE_INFINITY" :
+                        "Double.NEGATIVE_INFINITY";
+            } else {
+                literal = value + "D";
+            }
+        }
+        return literal;
+    }
+
+    @Override
+    public String toString() {
+        return this.columns.size() + " values";
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The values of a single type written to a {@link ProviderToolDataClass}, along with the java type and the name used
+ * by the generated methods.
+ */
+final class ProviderToolDataClassColumn<T> {
+
+    static <T> ProviderToolDataClassColumn<T> with(final String type,
+                                                   final String name,
+                                                   final Function<T, String> literal) {
+        return new ProviderToolDataClassColumn<>(type, name, literal);
+    }
+
+    private ProviderToolDataClassColumn(final String type,
+                                        final String name,
+                                        final Function<T, String> literal) {
+        super();
+        this.type = type;
+        this.name = name;
+        this.literal = literal;
+    }
+
+    /**
+     * The java type of a value, eg <code>int</code>.
+     */
+    final String type;
+
+    /**
+     * The name of the methods of this column, eg <code>ints</code>.
+     */
+    final String name;
+
+    /**
+     * Converts a value to a java literal.
+     */
+    final Function<T, String> literal;
+
+    /**
+     * The values in the order they were written.
+     */
+    final List<T> values = Lists.array();
+
+    @Override
+    public String toString() {
+        return this.name + " " + this.values.size();
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link SimpleDateFormat} pattern lexed into tokens, each either a run of a field letter such as <code>MMMM</code> or
+ * a literal with its quotes removed. Adjacent literal characters, quoted or not, are merged into a single literal.
+ */
+final class ProviderToolDateFormatPattern {
+
+    /**
+     * The letter of a literal token, which can never be a field letter.
+     */
+    final static char LITERAL = '\'';
+
+    /**
+     * Lexes the pattern into tokens.
+     */
+    static ProviderToolDateFormatPattern parse(final String pattern) {
+        final List<Character> letters = Lists.array();
+        final List<Object> values = Lists.array();
+        final StringBuilder literal = new StringBuilder();
+
+        final int length = pattern.length();
+        boolean quoted = false;
+        int i = 0;
+        while (i < length) {
+            final char c = pattern.charAt(i);
+
+            if (LITERAL == c) {
+                if (i + 1 < length && LITERAL == pattern.charAt(i + 1)) {
+                    literal.append(LITERAL);
+                    i++;
+                } else {
+                    quoted = false == quoted;
+                }
+                i++;
+            } else {
+                if (false == quoted && isLetter(c)) {
+                    addLiteral(literal, letters, values);
+
+                    int end = i + 1;
+                    while (end < length && c == pattern.charAt(end)) {
+                        end++;
+                    }
+                    letters.add(c);
+                    values.add(end - i);
+                    i = end;
+                } else {
+                    literal.append(c);
+                    i++;
+                }
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote in " + pattern);
+        }
+        addLiteral(literal, letters, values);
+
+        return new ProviderToolDateFormatPattern(letters, values);
+    }
+
+    private static void addLiteral(final StringBuilder literal,
+                                   final List<Character> letters,
+                                   final List<Object> values) {
+        if (literal.length() > 0) {
+            letters.add(LITERAL);
+            values.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+
+    private static boolean isLetter(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Verifies the tokens of the format rebuild a pattern with the same tokens, which formats a date with the same text
+     * as the original format, failing with an {@link IllegalStateException} if either is different.
+     */
+    static ProviderToolDateFormatPattern validate(final SimpleDateFormat format,
+                                                  final Date date) {
+        final String pattern = format.toPattern();
+        final ProviderToolDateFormatPattern tokens = parse(pattern);
+        final String rebuilt = tokens.toPattern();
+
+        if (false == tokens.equals(parse(rebuilt))) {
+            throw new IllegalStateException("Pattern " + pattern + " rebuilt as " + rebuilt + " has different tokens");
+        }
+
+        final SimpleDateFormat rebuiltFormat = (SimpleDateFormat) format.clone();
+        rebuiltFormat.applyPattern(rebuilt);
+
+        final String expected = format.format(date);
+        final String actual = rebuiltFormat.format(date);
+        if (false == expected.equals(actual)) {
+            throw new IllegalStateException("Pattern " + pattern + " rebuilt as " + rebuilt + " formatted " + actual + " expected " + expected);
+        }
+
+        return tokens;
+    }
+
+    private ProviderToolDateFormatPattern(final List<Character> letters,
+                                          final List<Object> values) {
+        super();
+        this.letters = letters;
+        this.values = values;
+    }
+
+    int count() {
+        return this.letters.size();
+    }
+
+    /**
+     * The field letter of the token or {@link #LITERAL}.
+     */
+    char letter(final int token) {
+        return this.letters.get(token);
+    }
+
+    /**
+     * The run length of a field token.
+     */
+    int length(final int token) {
+        return (Integer) this.values.get(token);
+    }
+
+    /**
+     * The text of a literal token.
+     */
+    String literal(final int token) {
+        return (String) this.values.get(token);
+    }
+
+    /**
+     * The text of all literal tokens in order.
+     */
+    List<String> literals() {
+        final List<String> literals = Lists.array();
+        for (int i = 0; i < this.count(); i++) {
+            if (LITERAL == this.letter(i)) {
+                literals.add(this.literal(i));
+            }
+        }
+        return literals;
+    }
+
+    private final List<Character> letters;
+    private final List<Object> values;
+
+    /**
+     * Rebuilds a pattern from the tokens, quoting only the letters and quotes within literals.
+     */
+    String toPattern() {
+        final StringBuilder b = new StringBuilder();
+
+        for (int i = 0; i < this.count(); i++) {
+            final char letter = this.letter(i);
+            if (LITERAL == letter) {
+                boolean quoted = false;
+
+                for (final char c : this.literal(i).toCharArray()) {
+                    if (LITERAL == c) {
+                        b.append(LITERAL);
+                        b.append(LITERAL);
+                    } else {
+                        final boolean quote = isLetter(c);
+                        if (quote != quoted) {
+                            b.append(LITERAL);
+                            quoted = quote;
+                        }
+                        b.append(c);
+                    }
+                }
+                if (quoted) {
+                    b.append(LITERAL);
+                }
+            } else {
+                for (int j = 0; j < this.length(i); j++) {
+                    b.append(letter);
+                }
+            }
+        }
+
+        return b.toString();
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.letters, this.values);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other ||
+                other instanceof ProviderToolDateFormatPattern &&
+                        this.equals0((ProviderToolDateFormatPattern) other);
+    }
+
+    private boolean equals0(final ProviderToolDateFormatPattern other) {
+        return this.letters.equals(other.letters) &&
+                this.values.equals(other.values);
+    }
+
+    @Override
+    public String toString() {
+        return this.toPattern();
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+
+import java.util.List;
+
+/**
+ * A {@link java.text.DecimalFormat} pattern parsed into the structures a formatter needs, so a runtime may build a
+ * formatter without parsing the pattern again. Affixes are lists of tokens, each either a {@link String} literal or an
+ * {@link Integer} holding one of the special symbol constants, which are replaced with the symbol of the locale.
+ */
+final class ProviderToolDecimalFormatPattern {
+
+    final static int LITERAL = 0;
+    final static int MINUS = 1;
+    final static int PERCENT = 2;
+    final static int PER_MILLE = 3;
+    final static int CURRENCY = 4;
+    final static int INTERNATIONAL_CURRENCY = 5;
+
+    /**
+     * The minimum exponent digits of a pattern without an exponent.
+     */
+    final static int NO_EXPONENT = 0;
+
+    private final static char QUOTE = '\'';
+    private final static char SEPARATOR = ';';
+    private final static char CURRENCY_SIGN = '¤';
+    private final static char PER_MILLE_SIGN = '‰';
+    private final static char GROUPING = ',';
+    private final static char DECIMAL = '.';
+    private final static char EXPONENT = 'E';
+
+    /**
+     * Parses a non localized pattern such as the result of {@link java.text.DecimalFormat#toPattern()}.
+     */
+    static ProviderToolDecimalFormatPattern parse(final String pattern) {
+        return new ProviderToolDecimalFormatPattern(pattern);
+    }
+
+    private ProviderToolDecimalFormatPattern(final String pattern) {
+        super();
+        this.pattern = pattern;
+
+        this.positivePrefix = this.affix(true);
+        this.number();
+        this.positiveSuffix = this.affix(false);
+
+        if (this.position < pattern.length() && SEPARATOR == pattern.charAt(this.position)) {
+            this.position++;
+            this.negativePrefix = this.affix(true);
+            this.skipNumber();
+            this.negativeSuffix = this.affix(false);
+        } else {
+            final List<Object> negativePrefix = Lists.array();
+            negativePrefix.add(MINUS);
+            negativePrefix.addAll(this.positivePrefix);
+
+            this.negativePrefix = negativePrefix;
+            this.negativeSuffix = this.positiveSuffix;
+        }
+
+        if (this.position != pattern.length()) {
+            throw this.invalidCharacter();
+        }
+    }
+
+    /**
+     * Consumes an affix, stopping at the number for a prefix and the separator or end for a suffix. Consecutive literal
+     * characters are merged into a single token.
+     */
+    private List<Object> affix(final boolean prefix) {
+        final String pattern = this.pattern;
+        final int length = pattern.length();
+        final List<Object> tokens = Lists.array();
+        final StringBuilder literal = new StringBuilder();
+
+        boolean quoted = false;
+        while (this.position < length) {
+            final char c = pattern.charAt(this.position);
+
+            if (quoted) {
+                if (QUOTE == c) {
+                    if (this.isNext(QUOTE)) {
+                        literal.append(QUOTE);
+                        this.position++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    literal.append(c);
+                }
+            } else {
+                if (isMantissa(c) || SEPARATOR == c) {
+                    if (false == prefix && SEPARATOR != c) {
+                        throw this.invalidCharacter();
+                    }
+                    break;
+                }
+
+                int special = LITERAL;
+                switch (c) {
+                    case QUOTE:
+                        if (this.isNext(QUOTE)) {
+                            literal.append(QUOTE);
+                            this.position++;
+                        } else {
+                            quoted = true;
+                        }
+                        break;
+                    case '-':
+                        special = MINUS;
+                        break;
+                    case '%':
+                        special = PERCENT;
+                        break;
+                    case PER_MILLE_SIGN:
+                        special = PER_MILLE;
+                        break;
+                    case CURRENCY_SIGN:
+                        if (this.isNext(CURRENCY_SIGN)) {
+                            special = INTERNATIONAL_CURRENCY;
+                            this.position++;
+                        } else {
+                            special = CURRENCY;
+                        }
+                        break;
+                    default:
+                        literal.append(c);
+                        break;
+                }
+
+                if (LITERAL != special) {
+                    addLiteral(literal, tokens);
+                    tokens.add(special);
+                }
+            }
+            this.position++;
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote in " + pattern);
+        }
+        addLiteral(literal, tokens);
+        return tokens;
+    }
+
+    private static void addLiteral(final StringBuilder literal,
+                                   final List<Object> tokens) {
+        if (literal.length() > 0) {
+            tokens.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+
+    /**
+     * Consumes the number of the positive pattern, recording the exponent. The grouping size is already available from
+     * {@link java.text.DecimalFormat#getGroupingSize()}.
+     */
+    private void number() {
+        final String pattern = this.pattern;
+        final int length = pattern.length();
+        final int start = this.position;
+
+        while (this.position < length && this.isNumber(start)) {
+            if (EXPONENT == pattern.charAt(this.position)) {
+                while (this.isNext('0')) {
+                    this.minimumExponentDigits++;
+                    this.position++;
+                }
+            }
+            this.position++;
+        }
+
+        if (start == this.position) {
+            throw new IllegalArgumentException("Missing number in " + pattern);
+        }
+    }
+
+    /**
+     * The negative pattern only contributes its affixes, its number is ignored.
+     */
+    private void skipNumber() {
+        final int start = this.position;
+        while (this.position < this.pattern.length() && this.isNumber(start)) {
+            this.position++;
+        }
+    }
+
+    /**
+     * Tests if the character at the position is part of a number that began at start. An exponent is only part of the
+     * number once the mantissa has started, otherwise it is a literal.
+     */
+    private boolean isNumber(final int start) {
+        final char c = this.pattern.charAt(this.position);
+        return isMantissa(c) || (EXPONENT == c && start != this.position);
+    }
+
+    private static boolean isMantissa(final char c) {
+        return '#' == c || '0' == c || GROUPING == c || DECIMAL == c;
+    }
+
+    private boolean isNext(final char c) {
+        final int next = this.position + 1;
+        return next < this.pattern.length() && c == this.pattern.charAt(next);
+    }
+
+    private IllegalArgumentException invalidCharacter() {
+        return new IllegalArgumentException(
+                "Invalid character " + this.pattern.charAt(this.position) + " at " + this.position + " in " + this.pattern
+        );
+    }
+
+    private final String pattern;
+    private int position;
+
+    /**
+     * The compiled values in the order of {@link #FIELDS}.
+     */
+    List<Object> values() {
+        return Lists.of(
+                this.negativePrefix,
+                this.negativeSuffix,
+                this.positivePrefix,
+                this.positiveSuffix,
+                this.minimumExponentDigits
+        );
+    }
+
+    /**
+     * The names of the compiled values.
+     */
+    final static String[] FIELDS = {
+            "negativePrefixTokens",
+            "negativeSuffixTokens",
+            "positivePrefixTokens",
+            "positiveSuffixTokens",
+            "minimumExponentDigits"
+    };
+
+    final List<Object> negativePrefix;
+    final List<Object> negativeSuffix;
+    final List<Object> positivePrefix;
+    final List<Object> positiveSuffix;
+
+    int minimumExponentDigits = NO_EXPONENT;
+
+    /**
+     * Formats affix tokens for a comment, with literals quoted and specials as their pattern character.
+     */
+    static String affixToString(final List<Object> tokens) {
+        final StringBuilder b = new StringBuilder();
+
+        for (final Object token : tokens) {
+            if (token instanceof String) {
+                b.append(QUOTE)
+                        .append(((String) token).replace("'", "''"))
+                        .append(QUOTE);
+            } else {
+                switch ((Integer) token) {
+                    case MINUS:
+                        b.append('-');
+                        break;
+                    case PERCENT:
+                        b.append('%');
+                        break;
+                    case PER_MILLE:
+                        b.append(PER_MILLE_SIGN);
+                        break;
+                    case CURRENCY:
+                        b.append(CURRENCY_SIGN);
+                        break;
+                    case INTERNATIONAL_CURRENCY:
+                        b.append(CURRENCY_SIGN)
+                                .append(CURRENCY_SIGN);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown token " + token);
+                }
+            }
+        }
+
+        return b.toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.pattern;
+    }
+}
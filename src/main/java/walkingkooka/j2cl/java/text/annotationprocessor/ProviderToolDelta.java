@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Helpers used to write a record as a base record index, a bit mask of the different fields and only those values.
+ * Field values may be arrays, which are compared by their elements.
+ */
+final class ProviderToolDelta {
+
+    /**
+     * The base index written when a record has no base and all its values are written.
+     */
+    final static int NO_BASE = -1;
+
+    /**
+     * Returns the index of the previous record with the fewest different values or {@link #NO_BASE} if none is cheaper
+     * than writing all values.
+     * <br>
+     * Every value, the base index and the mask each count as one written item. A record without a base writes
+     * {@link #NO_BASE} and all its values, which is values + 1 items, while a record with a base writes the index, the
+     * mask and the different values, which is differences + 2 items. A base is therefore only used when it has fewer than
+     * values - 1 differences.
+     */
+    static int base(final List<Object> values,
+                    final List<List<Object>> previous) {
+        int base = NO_BASE;
+        int baseCount = values.size() - 1;
+
+        for (int i = 0; i < previous.size(); i++) {
+            final int count = Integer.bitCount(differences(values, previous.get(i)));
+            if (count < baseCount) {
+                base = i;
+                baseCount = count;
+            }
+        }
+
+        return base;
+    }
+
+    /**
+     * Returns a bit mask with a bit set for each value that is different from the value at the same index in the base.
+     */
+    static int differences(final List<Object> values,
+                           final List<Object> base) {
+        final int count = values.size();
+        if (count != base.size()) {
+            throw new IllegalArgumentException("Values count " + count + " different from base " + base.size());
+        }
+        if (count > Integer.SIZE - 1) {
+            throw new IllegalArgumentException("Too many values " + count);
+        }
+
+        int differences = 0;
+        for (int i = 0; i < count; i++) {
+            if (false == Objects.deepEquals(values.get(i), base.get(i))) {
+                differences |= 1 << i;
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * Stop creation
+     */
+    private ProviderToolDelta() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.Locale;
+
+/**
+ * The encodings that may be used to write the data of a provider.
+ */
+enum ProviderToolEncoding {
+
+    /**
+     * The original comma separated text using {@link StringDataInputDataOutput}.
+     */
+    TEXT {
+        @Override
+        DataOutput output(final StringBuilder data) {
+            return StringDataInputDataOutput.output(data::append);
+        }
+
+        @Override
+        DataInput input(final String data) {
+            return StringDataInputDataOutput.input(data);
+        }
+
+        /**
+         * Skips the comma that separates the record from the previous value.
+         */
+        @Override
+        int valueStart(final CharSequence data,
+                       final int offset) {
+            return offset < data.length() && ',' == data.charAt(offset) ?
+                    offset + 1 :
+                    offset;
+        }
+    },
+
+    /**
+     * Packed values using {@link CompactDataInputDataOutput}.
+     */
+    COMPACT {
+        @Override
+        DataOutput output(final StringBuilder data) {
+            return CompactDataInputDataOutput.output(data);
+        }
+
+        @Override
+        DataInput input(final String data) {
+            return CompactDataInputDataOutput.input(data);
+        }
+
+        @Override
+        int valueStart(final CharSequence data,
+                       final int offset) {
+            return offset;
+        }
+    };
+
+    abstract DataOutput output(final StringBuilder data);
+
+    abstract DataInput input(final String data);
+
+    /**
+     * Returns the offset of the first character of the next value, given the length of the data before it was written.
+     */
+    abstract int valueStart(final CharSequence data,
+                            final int offset);
+
+    /**
+     * Parses the option value which is the lower case name.
+     */
+    static ProviderToolEncoding parse(final String value) {
+        for (final ProviderToolEncoding encoding : values()) {
+            if (encoding.optionValue().equals(value)) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unknown encoding " + value);
+    }
+
+    String optionValue() {
+        return this.name().toLowerCase(Locale.ENGLISH);
+    }
+}
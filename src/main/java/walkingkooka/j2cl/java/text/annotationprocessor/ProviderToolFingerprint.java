@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.SortedSets;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Holds a value harvested from the JRE for a {@link Locale} along with a canonical key of all the properties that
+ * are written. The key and its hash are computed once, making this a cheap {@link java.util.HashMap} key when grouping
+ * locales that share identical data.
+ */
+final class ProviderToolFingerprint<T> {
+
+    /**
+     * Creates a new fingerprint, the key should contain every property that is written for the value, arrays are
+     * compared by content.
+     */
+    static <T> ProviderToolFingerprint<T> with(final T value,
+                                               final Object... key) {
+        return new ProviderToolFingerprint<>(value, key);
+    }
+
+    /**
+     * Groups each of the locales by the fingerprint of its value.
+     */
+    static <T> Map<ProviderToolFingerprint<T>, Set<Locale>> group(final Map<Locale, ProviderToolFingerprint<T>> localeToFingerprint) {
+        final Map<ProviderToolFingerprint<T>, Set<Locale>> fingerprintToLocales = Maps.hash();
+
+        for (final Entry<Locale, ProviderToolFingerprint<T>> localeAndFingerprint : localeToFingerprint.entrySet()) {
+            Set<Locale> locales = fingerprintToLocales.get(localeAndFingerprint.getValue());
+            if (null == locales) {
+                locales = SortedSets.tree(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR);
+                fingerprintToLocales.put(localeAndFingerprint.getValue(), locales);
+            }
+            locales.add(localeAndFingerprint.getKey());
+        }
+
+        return fingerprintToLocales;
+    }
+
+    /**
+     * Sorts the groups using the first {@link Locale} of each group, this is the order records are written.
+     */
+    static <T> Map<Locale, ProviderToolFingerprint<T>> sortByFirstLocale(final Map<ProviderToolFingerprint<T>, Set<Locale>> fingerprintToLocales) {
+        final Map<Locale, ProviderToolFingerprint<T>> sorted = Maps.sorted(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR);
+
+        for (final Entry<ProviderToolFingerprint<T>, Set<Locale>> fingerprintAndLocales : fingerprintToLocales.entrySet()) {
+            sorted.put(fingerprintAndLocales.getValue().iterator().next(), fingerprintAndLocales.getKey());
+        }
+
+        return sorted;
+    }
+
+    private ProviderToolFingerprint(final T value,
+                                    final Object[] key) {
+        super();
+        this.value = value;
+        this.key = key;
+        this.hashCode = Arrays.deepHashCode(key);
+    }
+
+    /**
+     * The value from the JRE.
+     */
+    T value() {
+        return this.value;
+    }
+
+    private final T value;
+
+    private final Object[] key;
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    private final int hashCode;
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other ||
+                other instanceof ProviderToolFingerprint &&
+                        this.equals0((ProviderToolFingerprint<?>) other);
+    }
+
+    private boolean equals0(final ProviderToolFingerprint<?> other) {
+        return this.hashCode == other.hashCode &&
+                Arrays.deepEquals(this.key, other.key);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.deepToString(this.key);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.text.printer.IndentingPrinter;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Records the offset of each record as a tool writes it, so a header may be written that allows a single locale to be
+ * decoded without reading all the records before it. The header holds
+ * <ul>
+ * <li>the record count followed by the offset of each record within the body</li>
+ * <li>the locale count followed by each sorted language tag and its record number</li>
+ * <li>the body as a single UTF string, which includes any pools or tables before the first record</li>
+ * </ul>
+ * Records that refer to an earlier base record use the record number, which is also the index of its offset.
+ * <br>
+ * When hashed the sorted language tags are replaced by the bucket count, the displacement of each bucket, then the slot
+ * count followed by the language tag and record number of each slot of a {@link ProviderToolPerfectHash}. When there
+ * are no language tags both counts are zero and no hash table is written.
+ */
+final class ProviderToolIndex {
+
+    /**
+     * An index that ignores all records, used when no index is generated.
+     */
+    final static ProviderToolIndex NONE = new ProviderToolIndex(null, null, null, false);
+
+    /**
+     * Creates an index for records written by the encoding to the body, with the language tags either sorted or hashed.
+     */
+    static ProviderToolIndex with(final ProviderToolEncoding encoding,
+                                  final StringBuilder body,
+                                  final boolean hash) {
+        return new ProviderToolIndex(
+                body::length,
+                offset -> encoding.valueStart(body, offset),
+                body,
+                hash
+        );
+    }
+
+    /**
+     * Creates an index where the position of each record is given by the supplier.
+     */
+    static ProviderToolIndex with(final IntSupplier position) {
+        return new ProviderToolIndex(
+                position,
+                IntUnaryOperator.identity(),
+                null,
+                false
+        );
+    }
+
+    private ProviderToolIndex(final IntSupplier position,
+                              final IntUnaryOperator valueStart,
+                              final StringBuilder body,
+                              final boolean hash) {
+        super();
+        this.position = position;
+        this.valueStart = valueStart;
+        this.body = body;
+        this.hash = hash;
+    }
+
+    /**
+     * Tools should call this before writing the locales of each record.
+     */
+    void record(final Set<Locale> locales) {
+        final IntSupplier position = this.position;
+        if (null != position) {
+            final int record = this.offsets.size();
+            this.offsets.add(position.getAsInt());
+
+            for (final Locale locale : locales) {
+                this.tagToRecord.put(locale.toLanguageTag(), record);
+            }
+        }
+    }
+
+    /**
+     * Writes the header followed by the body.
+     */
+    void generate(final DataOutput data,
+                  final IndentingPrinter comments) throws IOException {
+        final List<Integer> offsets = this.offsets();
+        final Map<String, Integer> tagToRecord = this.tagToRecord;
+
+        comments.lineStart();
+        comments.print("index records=" + offsets.size() + " locales=" + tagToRecord.size());
+
+        data.writeInt(offsets.size());
+        for (final Integer offset : offsets) {
+            data.writeInt(offset);
+        }
+
+        if (this.hash) {
+            final ProviderToolPerfectHash hash = ProviderToolPerfectHash.with(tagToRecord.keySet());
+            final int[] displacements = hash.displacements();
+            comments.print(" buckets=" + displacements.length);
+
+            data.writeInt(displacements.length);
+            for (final int displacement : displacements) {
+                data.writeInt(displacement);
+            }
+
+            final List<String> slots = hash.slots();
+            data.writeInt(slots.size());
+            for (final String tag : slots) {
+                data.writeUTF(tag);
+                data.writeInt(tagToRecord.get(tag));
+            }
+        } else {
+            data.writeInt(tagToRecord.size());
+            for (final Entry<String, Integer> tagAndRecord : tagToRecord.entrySet()) {
+                data.writeUTF(tagAndRecord.getKey());
+                data.writeInt(tagAndRecord.getValue());
+            }
+        }
+
+        data.writeUTF(this.body.toString());
+    }
+
+    /**
+     * The position of each record, the position is the record number.
+     */
+    List<Integer> offsets() {
+        return this.offsets.stream()
+                .map(this.valueStart::applyAsInt)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The record number of each language tag sorted by tag.
+     */
+    Map<String, Integer> tagToRecord() {
+        return Collections.unmodifiableMap(this.tagToRecord);
+    }
+
+    private final IntSupplier position;
+
+    /**
+     * Moves a position to the first character of the next value, as the text encoding writes separators before values.
+     * This is only applied after all values are written, as the separator is written with the following value.
+     */
+    private final IntUnaryOperator valueStart;
+
+    private final StringBuilder body;
+
+    /**
+     * When true the language tags are written as a {@link ProviderToolPerfectHash}.
+     */
+    private final boolean hash;
+
+    /**
+     * The position of each record before {@link #valueStart} is applied, the position is the record number.
+     */
+    private final List<Integer> offsets = Lists.array();
+
+    /**
+     * Language tags sorted so a reader may binary search.
+     */
+    private final Map<String, Integer> tagToRecord = Maps.sorted();
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.text.CharSequences;
+import walkingkooka.text.printer.IndentingPrinter;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A table of all selected locales sorted by language tag, where the index of a locale is its id. The table is generated
+ * once as a class shared by all providers, whose records then write the id of each locale rather than its tag.
+ */
+final class ProviderToolLocaleTable {
+
+    /**
+     * The simple name of the generated class holding the table.
+     */
+    final static String CLASS_NAME = "ProviderLocales";
+
+    /**
+     * Returns the first table given for the compilation, which is the only table written. Every other processor of the
+     * compilation must select the same locales, as its records hold ids into that table.
+     */
+    static ProviderToolLocaleTable first(final ProcessingEnvironment compilation,
+                                         final ProviderToolLocaleTable table) {
+        synchronized (COMPILATIONS) {
+            return COMPILATIONS.computeIfAbsent(compilation, c -> table);
+        }
+    }
+
+    /**
+     * Weakly held so a finished compilation and its table are never kept by a long lived compiler daemon.
+     */
+    private final static Map<ProcessingEnvironment, ProviderToolLocaleTable> COMPILATIONS = new WeakHashMap<>();
+
+    /**
+     * Returns true only for the first caller of the compilation, which must write the source of the table. Every
+     * processor of a compilation shares the same table, and the {@link javax.annotation.processing.Filer} fails if the
+     * same source file is created twice.
+     */
+    static boolean claimSource(final ProcessingEnvironment compilation) {
+        synchronized (SOURCES) {
+            return SOURCES.add(compilation);
+        }
+    }
+
+    /**
+     * The compilations whose table source has been claimed, weakly held like {@link #COMPILATIONS}.
+     */
+    private final static Set<ProcessingEnvironment> SOURCES = Collections.newSetFromMap(new WeakHashMap<>());
+
+    static ProviderToolLocaleTable with(final Set<Locale> locales) {
+        final Map<String, Locale> tagToLocale = Maps.sorted();
+        for (final Locale locale : locales) {
+            tagToLocale.put(locale.toLanguageTag(), locale);
+        }
+
+        final List<Locale> sorted = Lists.array();
+        sorted.addAll(tagToLocale.values());
+        return new ProviderToolLocaleTable(sorted);
+    }
+
+    private ProviderToolLocaleTable(final List<Locale> locales) {
+        super();
+        this.locales = locales;
+
+        final Map<Locale, Integer> localeToId = Maps.hash();
+        for (int i = 0; i < locales.size(); i++) {
+            localeToId.put(locales.get(i), i);
+        }
+        this.localeToId = localeToId;
+    }
+
+    /**
+     * Writes the count followed by the id of each locale, with the same comment as
+     * {@link walkingkooka.j2cl.java.util.locale.support.LocaleSupport#generateLocales(Set, DataOutput, IndentingPrinter)},
+     * which is only built when printComments is true.
+     */
+    void generateLocales(final Set<Locale> locales,
+                         final DataOutput data,
+                         final IndentingPrinter comments,
+                         final boolean printComments) throws IOException {
+        if (printComments) {
+            comments.lineStart();
+            comments.print(
+                    "locales=" +
+                            locales.stream()
+                                    .map(Locale::toLanguageTag)
+                                    .collect(Collectors.joining(", "))
+            );
+        }
+
+        data.writeInt(locales.size());
+        for (final Locale locale : locales) {
+            data.writeInt(this.id(locale));
+        }
+    }
+
+    /**
+     * Returns the id of a locale, failing if the locale is not in the table.
+     */
+    int id(final Locale locale) {
+        final Integer id = this.localeToId.get(locale);
+        if (null == id) {
+            throw new IllegalArgumentException("Unknown locale " + locale.toLanguageTag());
+        }
+        return id;
+    }
+
+    /**
+     * The locales in id order.
+     */
+    List<Locale> locales() {
+        return Collections.unmodifiableList(this.locales);
+    }
+
+    private final List<Locale> locales;
+
+    private final Map<Locale, Integer> localeToId;
+
+    /**
+     * Builds the source of the class holding the tag and the parsed language, script, country and variant of every
+     * locale, indexed by id, and a method that creates each {@link Locale} once from its components, without parsing
+     * its tag. Legacy variants such as <code>ja_JP_JP</code> have no script and use the {@link Locale} constructor,
+     * which restores their extensions.
+     */
+    String source(final String generatedPackage) {
+        final StringBuilder source = new StringBuilder();
+
+        source.append("package " + generatedPackage + ";\n")
+                .append("\n")
+                .append("public final class " + CLASS_NAME + " {\n")
+                .append("\n");
+
+        this.array("TAGS", Locale::toLanguageTag, source);
+        this.array("LANGUAGES", ProviderToolLocales::language, source);
+        this.array("SCRIPTS", Locale::getScript, source);
+        this.array("COUNTRIES", Locale::getCountry, source);
+        this.array("VARIANTS", Locale::getVariant, source);
+
+        source.append("  private final static java.util.Locale[] LOCALES = new java.util.Locale[TAGS.length];\n")
+                .append("\n")
+                .append("  public static java.util.Locale locale(final int id) {\n")
+                .append("    java.util.Locale locale = LOCALES[id];\n")
+                .append("    if (null == locale) {\n")
+                .append("      final String script = SCRIPTS[id];\n")
+                .append("      locale = script.isEmpty() ?\n")
+                .append("          new java.util.Locale(LANGUAGES[id], COUNTRIES[id], VARIANTS[id]) :\n")
+                .append("          new java.util.Locale.Builder()\n")
+                .append("              .setLanguage(LANGUAGES[id])\n")
+                .append("              .setScript(script)\n")
+                .append("              .setRegion(COUNTRIES[id])\n")
+                .append("              .setVariant(VARIANTS[id])\n")
+                .append("              .build();\n")
+                .append("      LOCALES[id] = locale;\n")
+                .append("    }\n")
+                .append("    return locale;\n")
+                .append("  }\n")
+                .append("\n")
+                .append("  private " + CLASS_NAME + "() {\n")
+                .append("    throw new UnsupportedOperationException();\n")
+                .append("  }\n")
+                .append("}\n");
+
+        return source.toString();
+    }
+
+    private void array(final String name,
+                       final Function<Locale, String> value,
+                       final StringBuilder source) {
+        source.append("  public final static String[] " + name + " = {\n");
+
+        for (final Locale locale : this.locales) {
+            source.append("    " + CharSequences.quoteAndEscape(value.apply(locale)) + ",\n");
+        }
+
+        source.append("  };\n")
+                .append("\n");
+    }
+
+    @Override
+    public String toString() {
+        return this.locales.toString();
+    }
+}
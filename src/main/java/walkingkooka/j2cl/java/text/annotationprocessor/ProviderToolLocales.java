@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.j2cl.java.util.locale.support.LocaleSupport;
+import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
+import walkingkooka.text.printer.IndentingPrinter;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the locales at the start of each record in the form selected by the {@link ProviderToolOptions}.
+ */
+final class ProviderToolLocales {
+
+    /**
+     * Writes the locales of a record, either as their language tags, their {@link ProviderToolLocaleTable} ids or their
+     * components.
+     */
+    static void generate(final Set<Locale> locales,
+                         final ProviderToolSnapshot snapshot,
+                         final ProviderToolOptions options,
+                         final DataOutput data,
+                         final IndentingPrinter comments) throws IOException {
+        if (options.localeTable()) {
+            snapshot.localeTable()
+                    .generateLocales(locales, data, comments, options.comments());
+        } else if (options.localeComponents()) {
+            generateComponents(locales, data, comments, options.comments());
+        } else {
+            LocaleSupport.generateLocales(locales,
+                    data,
+                    comments);
+        }
+    }
+
+    /**
+     * Writes the count followed by the normalized language, script, country and variant of each locale, so a
+     * {@link Locale} is created without parsing its language tag. Legacy variants such as <code>ja_JP_JP</code> are
+     * written as is, and their extensions are restored by the {@link Locale} constructor. The comment is only built when
+     * printComments is true.
+     */
+    static void generateComponents(final Set<Locale> locales,
+                                   final DataOutput data,
+                                   final IndentingPrinter comments,
+                                   final boolean printComments) throws IOException {
+        if (printComments) {
+            comments.lineStart();
+            comments.print(
+                    "locales=" +
+                            locales.stream()
+                                    .map(Locale::toLanguageTag)
+                                    .collect(Collectors.joining(", "))
+            );
+        }
+
+        data.writeInt(locales.size());
+        for (final Locale locale : locales) {
+            data.writeUTF(language(locale));
+            data.writeUTF(locale.getScript());
+            data.writeUTF(locale.getCountry());
+            data.writeUTF(locale.getVariant());
+        }
+    }
+
+    /**
+     * Returns the language of the locale with old ISO codes such as <code>iw</code> replaced by their new code.
+     */
+    static String language(final Locale locale) {
+        return WalkingkookaLanguageTag.oldToNewLanguage(locale.getLanguage());
+    }
+
+    /**
+     * Stop creation
+     */
+    private ProviderToolLocales() {
+        throw new UnsupportedOperationException();
+    }
+}
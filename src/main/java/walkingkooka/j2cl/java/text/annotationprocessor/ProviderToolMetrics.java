@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.text.CharSequences;
+
+import java.util.Locale;
+
+/**
+ * Accumulates the time spent in each phase of generating a provider and the size of its output, which are reported as a
+ * note and optionally as JSON. Generating shards adds the phases and records of every shard.
+ */
+final class ProviderToolMetrics {
+
+    /**
+     * Metrics that ignore everything, used when metrics are disabled.
+     */
+    final static ProviderToolMetrics NONE = new ProviderToolMetrics("", false);
+
+    static ProviderToolMetrics with(final String provider) {
+        return new ProviderToolMetrics(provider, true);
+    }
+
+    private ProviderToolMetrics(final String provider,
+                                final boolean enabled) {
+        super();
+        this.provider = provider;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Adds the time spent fetching the JRE objects of every locale.
+     */
+    void harvest(final long nanos) {
+        if (this.enabled) {
+            this.harvestNanos += nanos;
+        }
+    }
+
+    /**
+     * Adds the time spent grouping locales with the same values into records.
+     */
+    void group(final long nanos) {
+        if (this.enabled) {
+            this.groupNanos += nanos;
+        }
+    }
+
+    /**
+     * Adds the time spent writing the data and comments of every record.
+     */
+    void emit(final long nanos) {
+        if (this.enabled) {
+            this.emitNanos += nanos;
+        }
+    }
+
+    void locales(final int count) {
+        if (this.enabled) {
+            this.locales = count;
+        }
+    }
+
+    void records(final int count) {
+        if (this.enabled) {
+            this.records += count;
+        }
+    }
+
+    void data(final int chars) {
+        if (this.enabled) {
+            this.dataChars += chars;
+        }
+    }
+
+    void comments(final int chars) {
+        if (this.enabled) {
+            this.commentChars += chars;
+        }
+    }
+
+    /**
+     * The number of locales for each record, which is 0 when there are no records.
+     */
+    double dedup() {
+        return 0 == this.records ?
+                0 :
+                (double) this.locales / this.records;
+    }
+
+    /**
+     * Returns the metrics as a single JSON object.
+     */
+    String json() {
+        return "{" +
+                "\"provider\": " + CharSequences.quoteAndEscape(this.provider) + ", " +
+                "\"harvestMillis\": " + millis(this.harvestNanos) + ", " +
+                "\"groupMillis\": " + millis(this.groupNanos) + ", " +
+                "\"emitMillis\": " + millis(this.emitNanos) + ", " +
+                "\"locales\": " + this.locales + ", " +
+                "\"records\": " + this.records + ", " +
+                "\"dedup\": " + this.dedupText() + ", " +
+                "\"dataChars\": " + this.dataChars + ", " +
+                "\"commentChars\": " + this.commentChars +
+                "}";
+    }
+
+    private String dedupText() {
+        return String.format(Locale.ENGLISH, "%.2f", this.dedup());
+    }
+
+    private static long millis(final long nanos) {
+        return nanos / 1000000;
+    }
+
+    private final String provider;
+
+    private final boolean enabled;
+
+    private long harvestNanos;
+
+    private long groupNanos;
+
+    private long emitNanos;
+
+    private int locales;
+
+    private int records;
+
+    private long dataChars;
+
+    private long commentChars;
+
+    @Override
+    public String toString() {
+        return this.provider +
+                " harvest=" + millis(this.harvestNanos) + "ms" +
+                " group=" + millis(this.groupNanos) + "ms" +
+                " emit=" + millis(this.emitNanos) + "ms" +
+                " locales=" + this.locales +
+                " records=" + this.records +
+                " dedup=" + this.dedupText() +
+                " data=" + this.dataChars +
+                " comments=" + this.commentChars;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * A {@link DataOutput} that writes every value to another {@link DataOutput} and reports its text form, so its length
+ * may be measured.
+ */
+final class ProviderToolMetricsDataOutput implements DataOutput {
+
+    ProviderToolMetricsDataOutput(final DataOutput data,
+                                  final Consumer<CharSequence> text) {
+        super();
+        this.data = data;
+        this.text = StringDataInputDataOutput.output(text::accept);
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        this.data.write(value);
+        this.text.write(value);
+    }
+
+    @Override
+    public void write(final byte[] bytes) throws IOException {
+        this.data.write(bytes);
+        this.text.write(bytes);
+    }
+
+    @Override
+    public void write(final byte[] bytes,
+                      final int offset,
+                      final int length) throws IOException {
+        this.data.write(bytes, offset, length);
+        this.text.write(bytes, offset, length);
+    }
+
+    @Override
+    public void writeBoolean(final boolean value) throws IOException {
+        this.data.writeBoolean(value);
+        this.text.writeBoolean(value);
+    }
+
+    @Override
+    public void writeByte(final int value) throws IOException {
+        this.data.writeByte(value);
+        this.text.writeByte(value);
+    }
+
+    @Override
+    public void writeShort(final int value) throws IOException {
+        this.data.writeShort(value);
+        this.text.writeShort(value);
+    }
+
+    @Override
+    public void writeChar(final int value) throws IOException {
+        this.data.writeChar(value);
+        this.text.writeChar(value);
+    }
+
+    @Override
+    public void writeInt(final int value) throws IOException {
+        this.data.writeInt(value);
+        this.text.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(final long value) throws IOException {
+        this.data.writeLong(value);
+        this.text.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(final float value) throws IOException {
+        this.data.writeFloat(value);
+        this.text.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(final double value) throws IOException {
+        this.data.writeDouble(value);
+        this.text.writeDouble(value);
+    }
+
+    @Override
+    public void writeBytes(final String value) throws IOException {
+        this.data.writeBytes(value);
+        this.text.writeBytes(value);
+    }
+
+    @Override
+    public void writeChars(final String value) throws IOException {
+        this.data.writeChars(value);
+        this.text.writeChars(value);
+    }
+
+    @Override
+    public void writeUTF(final String value) throws IOException {
+        this.data.writeUTF(value);
+        this.text.writeUTF(value);
+    }
+
+    private final DataOutput data;
+
+    /**
+     * Writes the text form of each value to the consumer.
+     */
+    private final DataOutput text;
+
+    @Override
+    public String toString() {
+        return this.data.toString();
+    }
+}
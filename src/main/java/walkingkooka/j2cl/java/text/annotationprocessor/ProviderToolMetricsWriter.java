@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.IntConsumer;
+
+/**
+ * A {@link Writer} that writes every char to another {@link Writer} and reports how many were written, such as to
+ * {@link ProviderToolMetrics#data(int)}.
+ */
+final class ProviderToolMetricsWriter extends FilterWriter {
+
+    ProviderToolMetricsWriter(final Writer writer,
+                              final IntConsumer chars) {
+        super(writer);
+        this.chars = chars;
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        super.write(c);
+        this.chars.accept(1);
+    }
+
+    @Override
+    public void write(final char[] chars,
+                      final int offset,
+                      final int length) throws IOException {
+        super.write(chars, offset, length);
+        this.chars.accept(length);
+    }
+
+    @Override
+    public void write(final String string,
+                      final int offset,
+                      final int length) throws IOException {
+        super.write(string, offset, length);
+        this.chars.accept(length);
+    }
+
+    private final IntConsumer chars;
+
+    @Override
+    public String toString() {
+        return this.out.toString();
+    }
+}
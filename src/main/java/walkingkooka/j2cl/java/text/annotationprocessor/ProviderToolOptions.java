@@ -0,0 +1,463 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.text.CharSequences;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.IndentingPrinter;
+import walkingkooka.text.printer.Printers;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Holds the annotation processor arguments that tune how the tools generate their data. Only arguments with names
+ * found in {@link #NAMES} are kept, missing arguments select the original behaviour.
+ */
+final class ProviderToolOptions {
+
+    private final static String PREFIX = "walkingkooka.j2cl.java.text.annotationprocessor.";
+
+    /**
+     * Selects the {@link ProviderToolEncoding} of <code>DATA</code>, either <code>text</code> or <code>compact</code>.
+     */
+    final static String ENCODING = PREFIX + "encoding";
+
+    /**
+     * When <code>true</code> a {@link ProviderToolIndex} header is written before the records, allowing a single locale to
+     * be decoded without reading all records.
+     */
+    final static String INDEX = PREFIX + "index";
+
+    /**
+     * When <code>true</code> records write the normalized language, script, country and variant of each locale instead
+     * of its language tag, so no tag is parsed at runtime. Cannot be combined with {@link #LOCALE_TABLE}.
+     */
+    final static String LOCALE_COMPONENTS = PREFIX + "localeComponents";
+
+    /**
+     * When <code>true</code> the time spent harvesting, grouping and emitting, the number of locales and records and the
+     * size of the data and comments of each provider are reported as a note.
+     */
+    final static String METRICS = PREFIX + "metrics";
+
+    /**
+     * A directory where the metrics of each provider are written as JSON to a file such as
+     * <code>DecimalFormatProvider.json</code>. Implies {@link #METRICS}.
+     */
+    final static String METRICS_DIRECTORY = PREFIX + "metricsDirectory";
+
+    /**
+     * When <code>true</code> a {@link ProviderToolLocaleTable} class shared by all providers is generated, and records
+     * write the id of each locale instead of its language tag.
+     */
+    final static String LOCALE_TABLE = PREFIX + "localeTable";
+
+    /**
+     * When <code>true</code> the language tags of the {@link ProviderToolIndex} are written as a
+     * {@link ProviderToolPerfectHash} instead of sorted, implies {@link #INDEX}.
+     */
+    final static String HASH = PREFIX + "hash";
+
+    /**
+     * When <code>true</code> the data of each language is written to its own generated class, and <code>DATA</code>
+     * only holds the language names.
+     */
+    final static String SHARD = PREFIX + "shard";
+
+    /**
+     * When <code>true</code> the side classes written by {@link #CHUNKS} or {@link #SHARD} receive their data as it is
+     * generated, rather than building each class in memory first. The provider itself is always built in memory.
+     */
+    final static String STREAM_SIDE_CLASSES = PREFIX + "streamSideClasses";
+
+    /**
+     * When <code>true</code> locale data is harvested from the JRE using the common fork join pool.
+     */
+    final static String PARALLEL = PREFIX + "parallel";
+
+    /**
+     * A directory where generated data and comments are cached, keyed by processor, JDK, filter and options.
+     */
+    final static String CACHE = PREFIX + "cache";
+
+    /**
+     * When <code>true</code> the data is written to a {@link ProviderToolChunks} class as constants small enough for a
+     * class file, and <code>DATA</code> is empty.
+     */
+    final static String CHUNKS = PREFIX + "chunks";
+
+    /**
+     * When <code>true</code> a class holding all values in typed arrays with a switch from language tag to record is
+     * generated, and <code>DATA</code> is empty.
+     */
+    final static String DATA_CLASS = PREFIX + "dataClass";
+
+    /**
+     * When <code>true</code> <code>DateFormatProvider</code> writes a table of unique patterns once, and records refer
+     * to patterns by index.
+     */
+    final static String DATE_FORMAT_PROVIDER_POOL = PREFIX + "DateFormatProvider.pool";
+
+    /**
+     * When <code>true</code> <code>DateFormatProvider</code> writes each pattern as {@link ProviderToolDateFormatPattern}
+     * tokens that refer to a table of unique literals, so patterns are not lexed by the runtime.
+     */
+    final static String DATE_FORMAT_PROVIDER_TOKENS = PREFIX + "DateFormatProvider.tokens";
+
+    /**
+     * When <code>true</code> <code>DateFormatProvider</code> rebuilds date time patterns from the date and time patterns
+     * and a glue template such as <code>{1}, {0}</code>, only storing patterns that cannot be rebuilt.
+     */
+    final static String DATE_FORMAT_PROVIDER_GLUE = PREFIX + "DateFormatProvider.glue";
+
+    /**
+     * When <code>true</code> each <code>DateFormatSymbolsProvider</code> record may be written as the index of an earlier
+     * base record followed by only the fields that are different.
+     */
+    final static String DATE_FORMAT_SYMBOLS_PROVIDER_DELTA = PREFIX + "DateFormatSymbolsProvider.delta";
+
+    /**
+     * When <code>true</code> each <code>DecimalFormatSymbolsProvider</code> record may be written as the index of an
+     * earlier base record followed by only the fields that are different.
+     */
+    final static String DECIMAL_FORMAT_SYMBOLS_PROVIDER_DELTA = PREFIX + "DecimalFormatSymbolsProvider.delta";
+
+    /**
+     * When <code>true</code> each <code>DecimalFormatProvider</code> pattern is written as the
+     * {@link ProviderToolDecimalFormatPattern} structures a formatter needs instead of the pattern text.
+     */
+    final static String DECIMAL_FORMAT_PROVIDER_COMPILED = PREFIX + "DecimalFormatProvider.compiled";
+
+    /**
+     * When <code>true</code> each <code>DecimalFormatProvider</code> format may be written as a reference to an earlier
+     * format followed by only the fields that are different.
+     */
+    final static String DECIMAL_FORMAT_PROVIDER_REFERENCES = PREFIX + "DecimalFormatProvider.references";
+
+    /**
+     * When <code>true</code> <code>DecimalFormatProvider</code> writes a table of unique formats for each variant once,
+     * and records refer to their formats by index.
+     */
+    final static String DECIMAL_FORMAT_PROVIDER_TABLES = PREFIX + "DecimalFormatProvider.tables";
+
+    /**
+     * When <code>false</code> no comments are generated, leaving <code>$DATA_COMMENT</code> empty.
+     */
+    final static String COMMENTS = PREFIX + "comments";
+
+    /**
+     * All supported argument names.
+     */
+    final static Set<String> NAMES = Sets.of(
+            CACHE,
+            CHUNKS,
+            COMMENTS,
+            DATA_CLASS,
+            DATE_FORMAT_PROVIDER_GLUE,
+            DATE_FORMAT_PROVIDER_POOL,
+            DATE_FORMAT_PROVIDER_TOKENS,
+            DATE_FORMAT_SYMBOLS_PROVIDER_DELTA,
+            DECIMAL_FORMAT_PROVIDER_COMPILED,
+            DECIMAL_FORMAT_PROVIDER_REFERENCES,
+            DECIMAL_FORMAT_PROVIDER_TABLES,
+            DECIMAL_FORMAT_SYMBOLS_PROVIDER_DELTA,
+            ENCODING,
+            HASH,
+            INDEX,
+            LOCALE_COMPONENTS,
+            LOCALE_TABLE,
+            METRICS,
+            METRICS_DIRECTORY,
+            PARALLEL,
+            SHARD,
+            STREAM_SIDE_CLASSES
+    );
+
+    /**
+     * Options with no arguments, which selects the original behaviour.
+     */
+    final static ProviderToolOptions DEFAULT = new ProviderToolOptions(Maps.sorted());
+
+    /**
+     * Factory that keeps only the supported arguments from the given annotation processor options, failing if any
+     * selected options cannot be combined.
+     */
+    static ProviderToolOptions with(final Map<String, String> options) {
+        Objects.requireNonNull(options, "options");
+
+        ProviderToolOptions result = DEFAULT;
+        for (final String name : NAMES) {
+            final String value = options.get(name);
+            if (null != value) {
+                result = result.set(name, value);
+            }
+        }
+        return result.failIfConflicts();
+    }
+
+    /**
+     * Fails with a message for every pair of selected options that cannot be combined, and every selected option
+     * missing another option it requires.
+     */
+    private ProviderToolOptions failIfConflicts() {
+        final List<String> conflicts = Lists.array();
+
+        this.conflict(CHUNKS, DATA_CLASS, conflicts);
+        this.conflict(CHUNKS, SHARD, conflicts);
+        this.conflict(DATA_CLASS, SHARD, conflicts);
+        this.conflict(DATE_FORMAT_PROVIDER_TOKENS, DATE_FORMAT_PROVIDER_GLUE, conflicts);
+        this.conflict(LOCALE_COMPONENTS, LOCALE_TABLE, conflicts);
+
+        if (this.streamSideClasses() && false == (this.chunks() || this.shard())) {
+            conflicts.add("Option " + STREAM_SIDE_CLASSES + " requires " + CHUNKS + " or " + SHARD);
+        }
+
+        if (false == conflicts.isEmpty()) {
+            throw new IllegalArgumentException(String.join("\n", conflicts));
+        }
+        return this;
+    }
+
+    private void conflict(final String name,
+                          final String other,
+                          final List<String> conflicts) {
+        if (this.booleanValue(name, false) && this.booleanValue(other, false)) {
+            conflicts.add("Options " + name + " and " + other + " cannot be combined");
+        }
+    }
+
+    private ProviderToolOptions(final Map<String, String> options) {
+        super();
+        this.options = options;
+    }
+
+    /**
+     * Would be setter that returns a new {@link ProviderToolOptions} with the given argument replaced.
+     */
+    ProviderToolOptions set(final String name,
+                            final String value) {
+        if (false == NAMES.contains(name)) {
+            throw new IllegalArgumentException("Unknown option " + CharSequences.quoteAndEscape(name));
+        }
+        Objects.requireNonNull(value, "value");
+
+        final Map<String, String> options = Maps.sorted();
+        options.putAll(this.options);
+        options.put(name, value);
+        return new ProviderToolOptions(options);
+    }
+
+    /**
+     * The cache directory if one was given.
+     */
+    Optional<Path> cache() {
+        return Optional.ofNullable(this.options.get(CACHE))
+                .map(Paths::get);
+    }
+
+    boolean chunks() {
+        return this.booleanValue(CHUNKS, false);
+    }
+
+    /**
+     * Returns a {@link String} holding all options that may change the generated output, ignoring the
+     * {@link #NOT_OUTPUT} options.
+     */
+    String cacheKey() {
+        final Map<String, String> options = Maps.sorted();
+        options.putAll(this.options);
+        options.keySet().removeAll(NOT_OUTPUT);
+        return options.toString();
+    }
+
+    /**
+     * Options that only change how or where the output is generated, but never the output itself.
+     */
+    private final static Set<String> NOT_OUTPUT = Sets.of(
+            CACHE,
+            METRICS,
+            METRICS_DIRECTORY,
+            PARALLEL,
+            STREAM_SIDE_CLASSES
+    );
+
+    boolean comments() {
+        return this.booleanValue(COMMENTS, true);
+    }
+
+    /**
+     * Returns the given {@link IndentingPrinter} or one that ignores everything when comments are disabled.
+     */
+    IndentingPrinter comments(final IndentingPrinter comments) {
+        return this.comments() ?
+                comments :
+                NO_COMMENTS;
+    }
+
+    /**
+     * Shared by all options as it ignores everything.
+     */
+    private final static IndentingPrinter NO_COMMENTS = LocaleAwareAnnotationProcessor.comments(Printers.sink(LineEnding.NONE));
+
+    boolean dataClass() {
+        return this.booleanValue(DATA_CLASS, false);
+    }
+
+    boolean dateFormatProviderGlue() {
+        return this.booleanValue(DATE_FORMAT_PROVIDER_GLUE, false);
+    }
+
+    boolean dateFormatProviderPool() {
+        return this.booleanValue(DATE_FORMAT_PROVIDER_POOL, false);
+    }
+
+    boolean dateFormatProviderTokens() {
+        return this.booleanValue(DATE_FORMAT_PROVIDER_TOKENS, false);
+    }
+
+    boolean dateFormatSymbolsProviderDelta() {
+        return this.booleanValue(DATE_FORMAT_SYMBOLS_PROVIDER_DELTA, false);
+    }
+
+    boolean decimalFormatProviderCompiled() {
+        return this.booleanValue(DECIMAL_FORMAT_PROVIDER_COMPILED, false);
+    }
+
+    boolean decimalFormatProviderReferences() {
+        return this.booleanValue(DECIMAL_FORMAT_PROVIDER_REFERENCES, false);
+    }
+
+    boolean decimalFormatProviderTables() {
+        return this.booleanValue(DECIMAL_FORMAT_PROVIDER_TABLES, false);
+    }
+
+    boolean decimalFormatSymbolsProviderDelta() {
+        return this.booleanValue(DECIMAL_FORMAT_SYMBOLS_PROVIDER_DELTA, false);
+    }
+
+    ProviderToolEncoding encoding() {
+        final String value = this.options.get(ENCODING);
+
+        final ProviderToolEncoding encoding;
+        if (null == value) {
+            encoding = ProviderToolEncoding.TEXT;
+        } else {
+            try {
+                encoding = ProviderToolEncoding.parse(value);
+            } catch (final IllegalArgumentException cause) {
+                throw invalidValue(ENCODING, value);
+            }
+        }
+        return encoding;
+    }
+
+    boolean index() {
+        return this.booleanValue(INDEX, false) || this.hash();
+    }
+
+    boolean metrics() {
+        return this.booleanValue(METRICS, false) || this.metricsDirectory().isPresent();
+    }
+
+    Optional<Path> metricsDirectory() {
+        return Optional.ofNullable(this.options.get(METRICS_DIRECTORY))
+                .map(Paths::get);
+    }
+
+    boolean localeComponents() {
+        return this.booleanValue(LOCALE_COMPONENTS, false);
+    }
+
+    boolean localeTable() {
+        return this.booleanValue(LOCALE_TABLE, false);
+    }
+
+    boolean hash() {
+        return this.booleanValue(HASH, false);
+    }
+
+    boolean parallel() {
+        return this.booleanValue(PARALLEL, false);
+    }
+
+    boolean shard() {
+        return this.booleanValue(SHARD, false);
+    }
+
+    boolean streamSideClasses() {
+        return this.booleanValue(STREAM_SIDE_CLASSES, false);
+    }
+
+    private boolean booleanValue(final String name,
+                                 final boolean defaultValue) {
+        final String value = this.options.get(name);
+
+        final boolean result;
+        if (null == value) {
+            result = defaultValue;
+        } else {
+            switch (value) {
+                case "true":
+                    result = true;
+                    break;
+                case "false":
+                    result = false;
+                    break;
+                default:
+                    throw invalidValue(name, value);
+            }
+        }
+        return result;
+    }
+
+    private static IllegalArgumentException invalidValue(final String name,
+                                                         final String value) {
+        return new IllegalArgumentException("Invalid option " + name + "=" + CharSequences.quoteAndEscape(value));
+    }
+
+    private final Map<String, String> options;
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return this.options.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other ||
+                other instanceof ProviderToolOptions &&
+                        this.options.equals(((ProviderToolOptions) other).options);
+    }
+
+    @Override
+    public String toString() {
+        return this.options.toString();
+    }
+}
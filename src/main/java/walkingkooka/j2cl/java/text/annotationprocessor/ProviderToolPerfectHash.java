@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A minimal perfect hash over a set of keys computed using hash and displace. Each key is first hashed with a seed of
+ * zero to select a bucket, the displacement of that bucket is then used as the seed of a second hash that selects the
+ * slot of the key. Every key has its own slot and there are exactly as many slots as keys, so a lookup is two hashes,
+ * one array read and one compare.
+ * <br>
+ * {@link #hash(int, CharSequence)} only uses int arithmetic so a runtime may repeat it exactly.
+ * <br>
+ * A hash of no keys has no buckets and no slots, a reader must not hash a key when there are no buckets.
+ */
+final class ProviderToolPerfectHash {
+
+    /**
+     * The displacement of a bucket holding no keys.
+     */
+    final static int EMPTY = 0;
+
+    /**
+     * The slot returned for any key when there are no keys.
+     */
+    final static int NO_SLOT = -1;
+
+    /**
+     * Computes a minimal perfect hash for the given unique keys.
+     */
+    static ProviderToolPerfectHash with(final Collection<String> keys) {
+        final int count = keys.size();
+        final int bucketCount = count;
+
+        final List<List<String>> buckets = Lists.array();
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(Lists.array());
+        }
+        for (final String key : keys) {
+            buckets.get(index(hash(0, key), bucketCount))
+                    .add(key);
+        }
+
+        // place the largest buckets first while most slots are free
+        final List<Integer> order = Lists.array();
+        for (int i = 0; i < bucketCount; i++) {
+            order.add(i);
+        }
+        order.sort((l, r) -> buckets.get(r).size() - buckets.get(l).size());
+
+        final int[] displacements = new int[bucketCount];
+        final String[] slots = new String[count];
+
+        for (final Integer bucket : order) {
+            final List<String> bucketKeys = buckets.get(bucket);
+            if (bucketKeys.isEmpty()) {
+                break;
+            }
+            final int[] bucketSlots = new int[bucketKeys.size()];
+
+            int displacement = EMPTY + 1;
+            while (false == place(bucketKeys, displacement, slots, bucketSlots)) {
+                if (displacement == MAX_DISPLACEMENT) {
+                    throw new IllegalStateException("Unable to place keys " + bucketKeys);
+                }
+                displacement++;
+            }
+
+            displacements[bucket] = displacement;
+            for (int i = 0; i < bucketSlots.length; i++) {
+                slots[bucketSlots[i]] = bucketKeys.get(i);
+            }
+        }
+
+        return new ProviderToolPerfectHash(displacements, slots);
+    }
+
+    /**
+     * Upper bound of the displacement search, which is only reached if the hash is very poor.
+     */
+    private final static int MAX_DISPLACEMENT = 1 << 20;
+
+    /**
+     * Tries to place all keys of a bucket with the displacement, filling bucketSlots if every key has a free and
+     * different slot.
+     */
+    private static boolean place(final List<String> keys,
+                                 final int displacement,
+                                 final String[] slots,
+                                 final int[] bucketSlots) {
+        boolean placed = true;
+
+        for (int i = 0; placed && i < bucketSlots.length; i++) {
+            final int slot = index(hash(displacement, keys.get(i)), slots.length);
+            placed = null == slots[slot];
+
+            for (int j = 0; placed && j < i; j++) {
+                placed = slot != bucketSlots[j];
+            }
+            bucketSlots[i] = slot;
+        }
+
+        return placed;
+    }
+
+    /**
+     * A FNV-1a hash of the characters, mixed with the seed.
+     */
+    static int hash(final int seed,
+                    final CharSequence key) {
+        int hash = 0x811c9dc5 ^ (seed * 0x9e3779b9);
+
+        final int length = key.length();
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ key.charAt(i)) * 0x01000193;
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Reduces a hash to an index within 0 and count, ignoring the sign.
+     */
+    static int index(final int hash,
+                     final int count) {
+        return (hash & Integer.MAX_VALUE) % count;
+    }
+
+    private ProviderToolPerfectHash(final int[] displacements,
+                                    final String[] slots) {
+        super();
+        this.displacements = displacements;
+        this.slots = slots;
+    }
+
+    /**
+     * Returns the slot of the key, if the key was not one of the original keys any slot may be returned and the caller
+     * must compare the key with the key in that slot. {@link #NO_SLOT} is returned when there are no keys.
+     */
+    int slot(final CharSequence key) {
+        final int[] displacements = this.displacements;
+
+        final int slot;
+        if (0 == displacements.length) {
+            slot = NO_SLOT;
+        } else {
+            final int displacement = displacements[index(hash(0, key), displacements.length)];
+            slot = index(hash(displacement, key), this.slots.length);
+        }
+        return slot;
+    }
+
+    /**
+     * The displacement of each bucket, or {@link #EMPTY} if the bucket has no keys.
+     */
+    int[] displacements() {
+        return this.displacements.clone();
+    }
+
+    private final int[] displacements;
+
+    /**
+     * The key held by each slot.
+     */
+    List<String> slots() {
+        return Lists.of(this.slots);
+    }
+
+    private final String[] slots;
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.displacements) + " " + Arrays.toString(this.slots);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for a single phase of generating a provider, recorded when a flight recording such as
+ * <code>-J-XX:StartFlightRecording</code> is running.
+ */
+@Name("walkingkooka.j2cl.java.text.annotationprocessor.ProviderToolPhase")
+@Label("Provider Tool Phase")
+@Description("A phase of generating the data of a provider")
+@Category({"walkingkooka", "j2cl java.text annotation processor"})
+@StackTrace(false)
+final class ProviderToolPhaseEvent extends Event {
+
+    /**
+     * Creating the locales of the selected language tags.
+     */
+    final static String RESOLVE = "resolve";
+
+    /**
+     * Fetching the JRE objects of every locale.
+     */
+    final static String HARVEST = "harvest";
+
+    /**
+     * Grouping locales with the same values into records.
+     */
+    final static String GROUP = "group";
+
+    /**
+     * Writing the data and comments of every record.
+     */
+    final static String SERIALIZE = "serialize";
+
+    /**
+     * Returns true when a recording includes these events.
+     */
+    static boolean enabled() {
+        return EventType.getEventType(ProviderToolPhaseEvent.class)
+                .isEnabled();
+    }
+
+    /**
+     * Creates and begins an event.
+     */
+    static ProviderToolPhaseEvent begin(final String provider,
+                                        final String phase,
+                                        final int locales) {
+        final ProviderToolPhaseEvent event = new ProviderToolPhaseEvent();
+        event.provider = provider;
+        event.phase = phase;
+        event.locales = locales;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the event.
+     */
+    void end(final int records,
+             final long dataChars) {
+        this.records = records;
+        this.dataChars = dataChars;
+        this.commit();
+    }
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Locales")
+    int locales;
+
+    @Label("Records")
+    int records;
+
+    @Label("Data Chars")
+    @Description("The number of chars written to DATA")
+    long dataChars;
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import java.io.DataOutput;
+
+/**
+ * Times the harvest, group and serialize phases of a tool, adding each to the {@link ProviderToolMetrics} and recording
+ * a {@link ProviderToolPhaseEvent} for each.
+ */
+final class ProviderToolPhases {
+
+    static ProviderToolPhases with(final String provider,
+                                   final int locales,
+                                   final ProviderToolMetrics metrics) {
+        return new ProviderToolPhases(provider, locales, metrics);
+    }
+
+    private ProviderToolPhases(final String provider,
+                               final int locales,
+                               final ProviderToolMetrics metrics) {
+        super();
+        this.provider = provider;
+        this.locales = locales;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns a {@link DataOutput} that counts the chars written while events are recorded, otherwise the given one.
+     */
+    DataOutput data(final DataOutput data) {
+        return ProviderToolPhaseEvent.enabled() ?
+                new ProviderToolMetricsDataOutput(data, text -> this.dataChars += text.length()) :
+                data;
+    }
+
+    void harvest() {
+        this.begin(ProviderToolPhaseEvent.HARVEST);
+    }
+
+    void group() {
+        this.metrics.harvest(this.end());
+        this.begin(ProviderToolPhaseEvent.GROUP);
+    }
+
+    void serialize(final int records) {
+        this.records = records;
+        this.metrics.group(this.end());
+        this.metrics.records(records);
+        this.begin(ProviderToolPhaseEvent.SERIALIZE);
+    }
+
+    /**
+     * Ends the serialize phase, which is the last phase.
+     */
+    void serialized() {
+        this.metrics.emit(this.end());
+    }
+
+    private void begin(final String phase) {
+        this.event = ProviderToolPhaseEvent.begin(this.provider, phase, this.locales);
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Commits the event of the current phase, returning its duration in nanos.
+     */
+    private long end() {
+        final long nanos = System.nanoTime() - this.start;
+        this.event.end(this.records, this.dataChars);
+        return nanos;
+    }
+
+    private final String provider;
+
+    private final int locales;
+
+    private final ProviderToolMetrics metrics;
+
+    private ProviderToolPhaseEvent event;
+
+    private long start;
+
+    private int records;
+
+    private long dataChars;
+
+    @Override
+    public String toString() {
+        return this.provider;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.SortedSets;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
+import walkingkooka.text.CharSequences;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers that group locales by language and build the source of the per language holder classes and the dispatch
+ * class that returns the <code>DATA</code> of a language.
+ */
+final class ProviderToolShards {
+
+    /**
+     * The package of all generated providers.
+     */
+    final static String PACKAGE = "walkingkooka.j2cl.java.text.generated";
+
+    /**
+     * Groups the locales by their shard, sorted by shard.
+     */
+    static Map<String, Set<Locale>> group(final Set<Locale> locales) {
+        final Map<String, Set<Locale>> shardToLocales = Maps.sorted();
+
+        for (final Locale locale : locales) {
+            shardToLocales.computeIfAbsent(
+                    shard(locale),
+                    s -> SortedSets.tree(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR)
+            ).add(locale);
+        }
+
+        return shardToLocales;
+    }
+
+    /**
+     * The shard is the language of the locale, the root locale belongs to <code>und</code>.
+     */
+    static String shard(final Locale locale) {
+        final String language = locale.getLanguage();
+        return language.isEmpty() ?
+                "und" :
+                language;
+    }
+
+    /**
+     * The simple name of the class holding the data of a shard, eg <code>DecimalFormatProvider_de</code>.
+     */
+    static String shardClassName(final String provider,
+                                 final String shard) {
+        return provider + "_" + shard;
+    }
+
+    /**
+     * The simple name of the class that returns the data of any shard, eg <code>DecimalFormatProviderShards</code>.
+     */
+    static String dispatchClassName(final String provider) {
+        return provider + "Shards";
+    }
+
+    /**
+     * Builds the source of the class holding the <code>DATA</code> of a single shard. Data too large for a single
+     * constant is joined from {@link ProviderToolChunks} when the class is initialized.
+     */
+    static String shardSource(final String provider,
+                              final String shard,
+                              final CharSequence comments,
+                              final CharSequence data) {
+        return shardSource(
+                provider,
+                shard,
+                comments,
+                ProviderToolChunks.split(data, ProviderToolChunks.MAX_BYTES)
+        );
+    }
+
+    static String shardSource(final String provider,
+                              final String shard,
+                              final CharSequence comments,
+                              final List<String> chunks) {
+        final String value;
+        if (1 == chunks.size()) {
+            value = CharSequences.quoteAndEscape(chunks.get(0)).toString();
+        } else {
+            value = chunks.stream()
+                    .map(c -> "\n      " + CharSequences.quoteAndEscape(c))
+                    .collect(Collectors.joining(",", "String.join(\"\",", ")"));
+        }
+
+        return "package " + PACKAGE + ";\n" +
+                "\n" +
+                "public final class " + shardClassName(provider, shard) + " {\n" +
+                "\n" +
+                comments +
+                "  public final static String DATA = preventInlining(" + value + ");\n" +
+                preventInlining();
+    }
+
+    /**
+     * The source of a shard class before its data, which is streamed as literals separated by {@link #SHARD_SEPARATOR}
+     * by a {@link ProviderToolChunksWriter}.
+     */
+    static String shardSourceStart(final String provider,
+                                   final String shard) {
+        return "package " + PACKAGE + ";\n" +
+                "\n" +
+                "public final class " + shardClassName(provider, shard) + " {\n" +
+                "\n" +
+                "  public final static String DATA = preventInlining(String.join(\"\"," + SHARD_SEPARATOR;
+    }
+
+    /**
+     * The source of a shard class after its streamed data. The comments are only known once the data is written, so
+     * they follow <code>DATA</code>.
+     */
+    static String shardSourceEnd(final CharSequence comments) {
+        return "));\n" +
+                "\n" +
+                comments +
+                preventInlining();
+    }
+
+    /**
+     * Separates the literals of a streamed shard.
+     */
+    final static String SHARD_SEPARATOR = "\n      ";
+
+    private static String preventInlining() {
+        return "\n" +
+                "  private static String preventInlining(final String string){\n" +
+                "    return string;\n" +
+                "  }\n" +
+                "}\n";
+    }
+
+    /**
+     * Builds the source of the class with a switch that returns the <code>DATA</code> of a shard or null if the shard
+     * is unknown. Each shard class is only referenced by its case, allowing a compiler to split each shard into its
+     * own module.
+     */
+    static String dispatchSource(final String provider,
+                                 final Set<String> shards) {
+        final StringBuilder source = new StringBuilder();
+
+        source.append("package " + PACKAGE + ";\n")
+                .append("\n")
+                .append("public final class " + dispatchClassName(provider) + " {\n")
+                .append("\n")
+                .append("  public static String data(final String language) {\n")
+                .append("    final String data;\n")
+                .append("\n")
+                .append("    switch (language) {\n");
+
+        for (final String shard : shards) {
+            source.append("      case " + CharSequences.quoteAndEscape(shard) + ":\n")
+                    .append("        data = " + shardClassName(provider, shard) + ".DATA;\n")
+                    .append("        break;\n");
+        }
+
+        source.append("      default:\n")
+                .append("        data = null;\n")
+                .append("        break;\n")
+                .append("    }\n")
+                .append("\n")
+                .append("    return data;\n")
+                .append("  }\n")
+                .append("}\n");
+
+        return source.toString();
+    }
+
+    /**
+     * Stop creation
+     */
+    private ProviderToolShards() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import java.text.DateFormat;
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the selected {@link Locale locales} and lazily fetches and remembers the JRE objects that the tools read.
+ * All processors in a compilation share the same snapshot, so locales are resolved and each JRE object is created once.
+ * Formats and symbols are mutable and not thread safe, so every accessor returns clones of the remembered objects.
+ */
+final class ProviderToolSnapshot {
+
+    /**
+     * Returns a snapshot for the given locale tags, which may have been created by another processor of the same
+     * compilation. Snapshots are held by the {@link ProcessingEnvironment} of the compilation, which every processor
+     * receives, and are released along with it once the compilation completes.
+     */
+    static ProviderToolSnapshot shared(final ProcessingEnvironment compilation,
+                                       final Set<String> locales) {
+        final Set<String> key = Sets.sorted();
+        key.addAll(locales);
+
+        synchronized (COMPILATIONS) {
+            return COMPILATIONS.computeIfAbsent(compilation, c -> Maps.hash())
+                    .computeIfAbsent(key, k -> with(LocaleAwareAnnotationProcessorTool.toLocales(locales)));
+        }
+    }
+
+    /**
+     * Weakly held so a finished compilation and its snapshots are never kept by a long lived compiler daemon.
+     */
+    private final static Map<ProcessingEnvironment, Map<Set<String>, ProviderToolSnapshot>> COMPILATIONS = new WeakHashMap<>();
+
+    /**
+     * Creates a new snapshot for the given locales, that is not shared.
+     */
+    static ProviderToolSnapshot with(final Set<Locale> locales) {
+        return new ProviderToolSnapshot(
+                locales,
+                ProviderToolLocaleTable.with(locales),
+                new ConcurrentHashMap<>(),
+                new ConcurrentHashMap<>(),
+                new ConcurrentHashMap<>(),
+                new ConcurrentHashMap<>()
+        );
+    }
+
+    private ProviderToolSnapshot(final Set<Locale> locales,
+                                 final ProviderToolLocaleTable localeTable,
+                                 final Map<Locale, List<SimpleDateFormat>> dateFormats,
+                                 final Map<Locale, DateFormatSymbols> dateFormatSymbols,
+                                 final Map<Locale, List<DecimalFormat>> decimalFormats,
+                                 final Map<Locale, DecimalFormatSymbols> decimalFormatSymbols) {
+        super();
+        this.locales = locales;
+        this.localeTable = localeTable;
+        this.dateFormats = dateFormats;
+        this.dateFormatSymbols = dateFormatSymbols;
+        this.decimalFormats = decimalFormats;
+        this.decimalFormatSymbols = decimalFormatSymbols;
+    }
+
+    /**
+     * Returns a snapshot holding only the given locales, which shares the remembered JRE objects and the locale table
+     * with this snapshot.
+     */
+    ProviderToolSnapshot subset(final Set<Locale> locales) {
+        return new ProviderToolSnapshot(
+                locales,
+                this.localeTable,
+                this.dateFormats,
+                this.dateFormatSymbols,
+                this.decimalFormats,
+                this.decimalFormatSymbols
+        );
+    }
+
+    /**
+     * The selected locales.
+     */
+    Set<Locale> locales() {
+        return this.locales;
+    }
+
+    private final Set<Locale> locales;
+
+    /**
+     * The table of all locales of the original snapshot, so the ids of a subset are the same as the original.
+     */
+    ProviderToolLocaleTable localeTable() {
+        return this.localeTable;
+    }
+
+    private final ProviderToolLocaleTable localeTable;
+
+    /**
+     * Calls the function for every locale returning the results sorted by {@link Locale}. When parallel is true
+     * the locales are shared across the common fork join pool.
+     */
+    <T> Map<Locale, T> harvest(final Function<Locale, T> function,
+                               final boolean parallel) {
+        final List<Locale> locales = Lists.array();
+        locales.addAll(this.locales);
+
+        final List<T> values = (parallel ? locales.parallelStream() : locales.stream())
+                .map(function)
+                .collect(Collectors.toList());
+
+        final Map<Locale, T> localeToValue = Maps.sorted(LocaleAwareAnnotationProcessorTool.LOCALE_COMPARATOR);
+        for (int i = 0; i < locales.size(); i++) {
+            localeToValue.put(locales.get(i), values.get(i));
+        }
+        return localeToValue;
+    }
+
+    /**
+     * The date, date time and time instances for all styles.
+     */
+    List<SimpleDateFormat> dateFormats(final Locale locale) {
+        return this.dateFormats.computeIfAbsent(locale, ProviderToolSnapshot::createDateFormats)
+                .stream()
+                .map(f -> (SimpleDateFormat) f.clone())
+                .collect(Collectors.toList());
+    }
+
+    private final Map<Locale, List<SimpleDateFormat>> dateFormats;
+
+    private static List<SimpleDateFormat> createDateFormats(final Locale locale) {
+        final List<SimpleDateFormat> formats = Lists.array();
+
+        for (final int dateStyle : STYLES) {
+            formats.add((SimpleDateFormat) DateFormat.getDateInstance(dateStyle, locale));
+        }
+
+        for (final int dateStyle : STYLES) {
+            for (final int timeStyle : STYLES) {
+                formats.add((SimpleDateFormat) DateFormat.getDateTimeInstance(dateStyle, timeStyle, locale));
+            }
+        }
+
+        for (final int timeStyle : STYLES) {
+            formats.add((SimpleDateFormat) DateFormat.getTimeInstance(timeStyle, locale));
+        }
+
+        return Collections.unmodifiableList(formats);
+    }
+
+    private final static int[] STYLES = new int[]{DateFormat.SHORT, DateFormat.MEDIUM, DateFormat.LONG, DateFormat.FULL};
+
+    DateFormatSymbols dateFormatSymbols(final Locale locale) {
+        return (DateFormatSymbols) this.dateFormatSymbols.computeIfAbsent(locale, DateFormatSymbols::getInstance)
+                .clone();
+    }
+
+    private final Map<Locale, DateFormatSymbols> dateFormatSymbols;
+
+    /**
+     * The currency, instance, integer, number and percent formats.
+     */
+    List<DecimalFormat> decimalFormats(final Locale locale) {
+        return this.decimalFormats.computeIfAbsent(locale, ProviderToolSnapshot::createDecimalFormats)
+                .stream()
+                .map(f -> (DecimalFormat) f.clone())
+                .collect(Collectors.toList());
+    }
+
+    private final Map<Locale, List<DecimalFormat>> decimalFormats;
+
+    private static List<DecimalFormat> createDecimalFormats(final Locale locale) {
+        final DecimalFormat currency = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
+        final DecimalFormat instance = (DecimalFormat) NumberFormat.getInstance(locale);
+        final DecimalFormat integer = (DecimalFormat) NumberFormat.getIntegerInstance(locale);
+        final DecimalFormat number = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+        final DecimalFormat percent = (DecimalFormat) NumberFormat.getPercentInstance(locale);
+
+        return Lists.of(currency, instance, integer, number, percent);
+    }
+
+    DecimalFormatSymbols decimalFormatSymbols(final Locale locale) {
+        return (DecimalFormatSymbols) this.decimalFormatSymbols.computeIfAbsent(locale, DecimalFormatSymbols::getInstance)
+                .clone();
+    }
+
+    private final Map<Locale, DecimalFormatSymbols> decimalFormatSymbols;
+
+    @Override
+    public String toString() {
+        return this.locales.toString();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CharSequences;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CompactDataInputDataOutputTest implements ClassTesting<CompactDataInputDataOutput> {
+
+    @Test
+    public void testSmallIntSingleDigit() throws IOException {
+        final StringBuilder b = new StringBuilder();
+        CompactDataInputDataOutput.output(b).writeInt(15);
+
+        this.checkEquals("U", b.toString());
+    }
+
+    @Test
+    public void testNegativeOneSingleDigit() throws IOException {
+        final StringBuilder b = new StringBuilder();
+        CompactDataInputDataOutput.output(b).writeInt(-1);
+
+        this.checkEquals("1", b.toString());
+    }
+
+    @Test
+    public void testStringNotEscaped() throws IOException {
+        final StringBuilder b = new StringBuilder();
+        CompactDataInputDataOutput.output(b).writeUTF("a,b\\c");
+
+        this.checkEquals("5a,b\\c", b.toString());
+    }
+
+    @Test
+    public void testDigitsNeverEscaped() throws IOException {
+        final StringBuilder b = new StringBuilder();
+        final DataOutput output = CompactDataInputDataOutput.output(b);
+        output.writeBoolean(true);
+        output.writeInt(-1);
+        output.writeInt(Integer.MAX_VALUE);
+        output.writeInt(Integer.MIN_VALUE);
+        output.writeInt(0xD800);
+        output.writeLong(Long.MIN_VALUE);
+
+        this.checkEquals(
+                "\"" + b + "\"",
+                CharSequences.quoteAndEscape(b).toString()
+        );
+
+        for (int i = 0; i < b.length(); i++) {
+            final char c = b.charAt(i);
+            this.checkEquals(true, ',' != c && '\'' != c, () -> "char " + c);
+        }
+    }
+
+    @Test
+    public void testInvalidDigitFails() {
+        assertThrows(
+                IOException.class,
+                () -> CompactDataInputDataOutput.input(",").readInt()
+        );
+    }
+
+    @Test
+    public void testRoundtrip() throws IOException {
+        final StringBuilder b = new StringBuilder();
+        final DataOutput output = CompactDataInputDataOutput.output(b);
+
+        output.writeBoolean(true);
+        output.writeBoolean(false);
+        output.writeByte(-2);
+        output.writeShort(-3);
+        output.writeChar(' ');
+        output.writeInt(0);
+        output.writeInt(31);
+        output.writeInt(32);
+        output.writeInt(1791);
+        output.writeInt(-1);
+        output.writeInt(Integer.MAX_VALUE);
+        output.writeInt(Integer.MIN_VALUE);
+        output.writeLong(Long.MIN_VALUE + 1);
+        output.writeFloat(1.5f);
+        output.writeDouble(-2.25);
+        output.writeUTF("");
+        output.writeUTF("Hello, \"World\"");
+
+        final DataInput input = CompactDataInputDataOutput.input(b.toString());
+        this.checkEquals(true, input.readBoolean(), () -> "boolean true");
+        this.checkEquals(false, input.readBoolean(), () -> "boolean false");
+        this.checkEquals((byte) -2, input.readByte(), () -> "byte");
+        this.checkEquals((short) -3, input.readShort(), () -> "short");
+        this.checkEquals(' ', input.readChar(), () -> "char");
+        this.checkEquals(0, input.readInt(), () -> "int 0");
+        this.checkEquals(31, input.readInt(), () -> "int 31");
+        this.checkEquals(32, input.readInt(), () -> "int 32");
+        this.checkEquals(1791, input.readInt(), () -> "int 1791");
+        this.checkEquals(-1, input.readInt(), () -> "int -1");
+        this.checkEquals(Integer.MAX_VALUE, input.readInt(), () -> "int max");
+        this.checkEquals(Integer.MIN_VALUE, input.readInt(), () -> "int min");
+        this.checkEquals(Long.MIN_VALUE + 1, input.readLong(), () -> "long");
+        this.checkEquals(1.5f, input.readFloat(), () -> "float");
+        this.checkEquals(-2.25, input.readDouble(), () -> "double");
+        this.checkEquals("", input.readUTF(), () -> "empty string");
+        this.checkEquals("Hello, \"World\"", input.readUTF(), () -> "string");
+
+        assertThrows(EOFException.class, input::readInt);
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<CompactDataInputDataOutput> type() {
+        return CompactDataInputDataOutput.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
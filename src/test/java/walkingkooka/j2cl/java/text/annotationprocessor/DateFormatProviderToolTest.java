@@ -19,7 +19,7 @@ package walkingkooka.j2cl.java.text.annotationprocessor;
 
 import org.junit.jupiter.api.Test;
 import walkingkooka.NeverError;
-import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
 import walkingkooka.text.printer.IndentingPrinter;
 
@@ -28,6 +28,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -286,54 +287,242 @@ public final class DateFormatProviderToolTest extends ProviderToolTestCase<DateF
 
     @Test
     public void testGenerateReadVerify() throws IOException {
-        final String dataSource = this.generateData("*");
-        final DataInput data = StringDataInputDataOutput.input(dataSource);
+        this.generateReadVerify(ProviderToolOptions.DEFAULT);
+    }
+
+    @Test
+    public void testGenerateReadVerifyCompact() throws IOException {
+        this.generateReadVerify(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.ENCODING, "compact"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyPool() throws IOException {
+        this.generateReadVerify(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DATE_FORMAT_PROVIDER_POOL, "true"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyPoolCompact() throws IOException {
+        this.generateReadVerify(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DATE_FORMAT_PROVIDER_POOL, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public void testGenerateReadVerifyGlue() throws IOException {
+        this.generateReadVerify(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DATE_FORMAT_PROVIDER_GLUE, "true"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyGluePoolCompact() throws IOException {
+        this.generateReadVerify(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DATE_FORMAT_PROVIDER_GLUE, "true")
+                        .set(ProviderToolOptions.DATE_FORMAT_PROVIDER_POOL, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public void testGenerateReadVerifyTokens() throws IOException {
+        this.generateReadVerify(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DATE_FORMAT_PROVIDER_TOKENS, "true"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyTokensPoolCompact() throws IOException {
+        this.generateReadVerify(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DATE_FORMAT_PROVIDER_TOKENS, "true")
+                        .set(ProviderToolOptions.DATE_FORMAT_PROVIDER_POOL, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public void testGlueDateTime() {
+        this.glueAndCheck("d/M/yy, h:mm a", "d/M/yy", "h:mm a", "{1}, {0}");
+    }
+
+    @Test
+    public void testGlueTimeDate() {
+        this.glueAndCheck("h:mm a d/M/yy", "d/M/yy", "h:mm a", "{0} {1}");
+    }
+
+    @Test
+    public void testGlueQuoted() {
+        this.glueAndCheck("d MMMM y 'at' h:mm:ss a z", "d MMMM y", "h:mm:ss a z", "{1} 'at' {0}");
+    }
+
+    @Test
+    public void testGlueMissing() {
+        this.checkEquals(null, DateFormatProviderTool.glue("h:mm a", "d/M/yy", "h:mm a"));
+    }
+
+    private void glueAndCheck(final String dateTime,
+                              final String date,
+                              final String time,
+                              final String glue) {
+        this.checkEquals(glue, DateFormatProviderTool.glue(dateTime, date, time), "glue");
+        this.checkEquals(dateTime, DateFormatProviderTool.compose(glue, date, time), "compose");
+    }
+
+    private void generateReadVerify(final ProviderToolOptions options) throws IOException {
+        final DataInput data = this.generateDataInput("*", options);
+        final boolean tokens = options.dateFormatProviderTokens();
+        final List<String> literals = tokens ?
+                this.readStrings(data) :
+                null;
+        final List<String> pool = options.dateFormatProviderPool() ?
+                readPool(data, literals) :
+                null;
         final int count = data.readInt();
 
         for (int i = 0; i < count; i++) {
             final Set<Locale> locales = this.readLocales(data);
 
+            final List<String> datePatterns = Lists.array();
             for (int dateStyle : styles()) {
-                final String pattern = data.readUTF();
+                final String pattern = readPattern(data, pool, literals);
+                datePatterns.add(pattern);
                 for (final Locale locale : locales) {
                     this.checkEquals(DateFormat.getDateInstance(dateStyle, locale),
+                            tokens,
                             new SimpleDateFormat(pattern, locale),
                             () -> "getDateInstance " + styleToString(dateStyle) + " " + locale);
                 }
             }
 
+            // glue indices are read before the time patterns, so the date time patterns are verified afterwards
+            final List<String> glues = options.dateFormatProviderGlue() ?
+                    this.readPatterns(data, pool, literals) :
+                    null;
+            final int[] dateTimeGlues = new int[16];
+            final String[] dateTimePatterns = new String[16];
+            for (int j = 0; j < 16; j++) {
+                final int glue = null != glues ?
+                        data.readInt() :
+                        DateFormatProviderTool.LITERAL;
+                dateTimeGlues[j] = glue;
+                if (DateFormatProviderTool.LITERAL == glue) {
+                    dateTimePatterns[j] = readPattern(data, pool, literals);
+                }
+            }
+
+            final List<String> timePatterns = Lists.array();
+            for (int timeStyle : styles()) {
+                final String pattern = readPattern(data, pool, literals);
+                timePatterns.add(pattern);
+                for (final Locale locale : locales) {
+                    this.checkEquals(DateFormat.getTimeInstance(timeStyle, locale),
+                            tokens,
+                            new SimpleDateFormat(pattern, locale),
+                            () -> "getTimeInstance " + styleToString(timeStyle) + " " + locale);
+                }
+            }
+
+            int j = 0;
             for (int dateStyle : styles()) {
                 for (int timeStyle : styles()) {
-                    final String pattern = data.readUTF();
+                    final int glue = dateTimeGlues[j];
+                    final String pattern = DateFormatProviderTool.LITERAL == glue ?
+                            dateTimePatterns[j] :
+                            DateFormatProviderTool.compose(
+                                    glues.get(glue),
+                                    datePatterns.get(j / 4),
+                                    timePatterns.get(j % 4)
+                            );
+                    j++;
                     for (final Locale locale : locales) {
                         this.checkEquals(DateFormat.getDateTimeInstance(dateStyle, timeStyle, locale),
+                                tokens,
                                 new SimpleDateFormat(pattern, locale),
                                 () -> "getDateTimeInstance " + styleToString(timeStyle) + " " + styleToString(timeStyle) + " " + locale);
                     }
                 }
             }
+        }
+    }
 
-            for (int timeStyle : styles()) {
-                final String pattern = data.readUTF();
-                for (final Locale locale : locales) {
-                    this.checkEquals(DateFormat.getTimeInstance(timeStyle, locale),
-                            new SimpleDateFormat(pattern, locale),
-                            () -> "getTimeInstance " + styleToString(timeStyle) + " " + locale);
+    private List<String> readPatterns(final DataInput data,
+                                      final List<String> pool,
+                                      final List<String> literals) throws IOException {
+        final int count = data.readInt();
+        final List<String> patterns = Lists.array();
+        for (int i = 0; i < count; i++) {
+            patterns.add(readPattern(data, pool, literals));
+        }
+        return patterns;
+    }
+
+    private static List<String> readPool(final DataInput data,
+                                         final List<String> literals) throws IOException {
+        final int count = data.readInt();
+        final List<String> pool = Lists.array();
+        for (int i = 0; i < count; i++) {
+            pool.add(readPattern(data, literals));
+        }
+        return pool;
+    }
+
+    private static String readPattern(final DataInput data,
+                                      final List<String> pool,
+                                      final List<String> literals) throws IOException {
+        return null != pool ?
+                pool.get(data.readInt()) :
+                readPattern(data, literals);
+    }
+
+    /**
+     * Reads a pattern, or when literals are present reads tokens and rebuilds a pattern quoting every literal.
+     */
+    private static String readPattern(final DataInput data,
+                                      final List<String> literals) throws IOException {
+        final String pattern;
+
+        if (null != literals) {
+            final StringBuilder b = new StringBuilder();
+            final int count = data.readInt();
+            for (int i = 0; i < count; i++) {
+                final char letter = data.readChar();
+                final int value = data.readInt();
+                if (ProviderToolDateFormatPattern.LITERAL == letter) {
+                    b.append('\'')
+                            .append(literals.get(value).replace("'", "''"))
+                            .append('\'');
+                } else {
+                    for (int j = 0; j < value; j++) {
+                        b.append(letter);
+                    }
                 }
             }
+            pattern = b.toString();
+        } else {
+            pattern = data.readUTF();
         }
+
+        return pattern;
     }
 
     private static int[] styles() {
         return new int[]{DateFormat.SHORT, DateFormat.MEDIUM, DateFormat.LONG, DateFormat.FULL};
     }
 
+    /**
+     * Token patterns lose their original quoting, so when tokens are compared the tokens of both patterns are compared.
+     */
     private void checkEquals(final DateFormat expected,
+                             final boolean tokens,
                              final SimpleDateFormat actual,
                              final Supplier<String> message) {
-        this.checkEquals((SimpleDateFormat) expected,
-                actual,
-                message);
+        if (tokens) {
+            this.checkEquals(
+                    ProviderToolDateFormatPattern.parse(((SimpleDateFormat) expected).toPattern()),
+                    ProviderToolDateFormatPattern.parse(actual.toPattern()),
+                    message
+            );
+        } else {
+            this.checkEquals((SimpleDateFormat) expected,
+                    actual,
+                    message);
+        }
     }
 
     private void checkEquals(final SimpleDateFormat expected,
@@ -384,10 +573,14 @@ public final class DateFormatProviderToolTest extends ProviderToolTestCase<DateF
 
     @Override
     void generate0(final Set<String> locales,
+                   final ProviderToolOptions options,
+                   final ProviderToolIndex index,
                    final DataOutput data,
                    final IndentingPrinter comments) throws IOException {
         DateFormatProviderTool.generate("?",
-                LocaleAwareAnnotationProcessorTool.toLocales(locales),
+                ProviderToolSnapshot.with(LocaleAwareAnnotationProcessorTool.toLocales(locales)),
+                options,
+                index,
                 data,
                 comments);
     }
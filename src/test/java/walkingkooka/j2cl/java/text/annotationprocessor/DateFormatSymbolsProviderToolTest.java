@@ -19,7 +19,6 @@ package walkingkooka.j2cl.java.text.annotationprocessor;
 
 import org.junit.jupiter.api.Test;
 import walkingkooka.collect.list.Lists;
-import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
 import walkingkooka.text.printer.IndentingPrinter;
 
@@ -91,8 +90,44 @@ public final class DateFormatSymbolsProviderToolTest extends ProviderToolTestCas
 
     @Test
     public void testGenerateReadVerify() throws IOException {
-        final String dataSource = this.generateData("*");
-        final DataInput data = StringDataInputDataOutput.input(dataSource);
+        this.generateReadVerify(ProviderToolOptions.DEFAULT);
+    }
+
+    @Test
+    public void testGenerateReadVerifyCompact() throws IOException {
+        this.generateReadVerify(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.ENCODING, "compact"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyDelta() throws IOException {
+        this.generateReadVerify(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DATE_FORMAT_SYMBOLS_PROVIDER_DELTA, "true"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyDeltaCompact() throws IOException {
+        this.generateReadVerify(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DATE_FORMAT_SYMBOLS_PROVIDER_DELTA, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public void testDeltaSmaller() throws IOException {
+        final ProviderToolOptions delta = ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DATE_FORMAT_SYMBOLS_PROVIDER_DELTA, "true");
+        final int deltaLength = this.generateData("*", delta).length();
+        final int length = this.generateData("*").length();
+
+        this.checkEquals(
+                true,
+                deltaLength < length,
+                () -> "delta " + deltaLength + " should be smaller than " + length
+        );
+    }
+
+    private void generateReadVerify(final ProviderToolOptions options) throws IOException {
+        final DataInput data = this.generateDataInput("*", options);
+        final boolean delta = options.dateFormatSymbolsProviderDelta();
+        final List<List<List<String>>> previous = Lists.array();
         final int count = data.readInt();
 
 // locales=vai-Latn, vai-Latn-LR
@@ -104,15 +139,32 @@ public final class DateFormatSymbolsProviderToolTest extends ProviderToolTestCas
 // weekdays=lahadi, tɛɛnɛɛ, talata, alaba, aimisa, aijima, siɓiti
         for (int i = 0; i < count; i++) {
             final Set<Locale> locales = this.readLocales(data);
-            final List<String> ampms = this.readStrings(data);
-            final List<String> eras = this.readStrings(data);
-            final List<String> months = this.readStrings(data);
-            final List<String> shortMonths = this.readStrings(data);
-            final List<String> shortWeekdays = this.readStrings(data);
-            final List<String> weekdays = this.readStrings(data);
 
-            shortWeekdays.add(0, "");
-            weekdays.add(0, "");
+            final int base = delta ?
+                    data.readInt() :
+                    ProviderToolDelta.NO_BASE;
+            final int differences = ProviderToolDelta.NO_BASE != base ?
+                    data.readInt() :
+                    -1;
+
+            final List<List<String>> values = Lists.array();
+            for (int j = 0; j < 6; j++) {
+                values.add(0 != (differences & (1 << j)) ?
+                        this.readStrings(data) :
+                        previous.get(base).get(j));
+            }
+            previous.add(values);
+
+            final List<String> ampms = values.get(0);
+            final List<String> eras = values.get(1);
+            final List<String> months = values.get(2);
+            final List<String> shortMonths = values.get(3);
+            final List<String> shortWeekdays = Lists.array();
+            shortWeekdays.add("");
+            shortWeekdays.addAll(values.get(4));
+            final List<String> weekdays = Lists.array();
+            weekdays.add("");
+            weekdays.addAll(values.get(5));
 
             for (final Locale locale : locales) {
                 final DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
@@ -125,6 +177,7 @@ public final class DateFormatSymbolsProviderToolTest extends ProviderToolTestCas
             }
         }
     }
+
     // ClassTesting.....................................................................................................
 
     @Override
@@ -134,10 +187,14 @@ public final class DateFormatSymbolsProviderToolTest extends ProviderToolTestCas
 
     @Override
     void generate0(final Set<String> locales,
+                   final ProviderToolOptions options,
+                   final ProviderToolIndex index,
                    final DataOutput data,
                    final IndentingPrinter comments) throws IOException {
         DateFormatSymbolsProviderTool.generate("?",
-                LocaleAwareAnnotationProcessorTool.toLocales(locales),
+                ProviderToolSnapshot.with(LocaleAwareAnnotationProcessorTool.toLocales(locales)),
+                options,
+                index,
                 data,
                 comments);
     }
@@ -18,7 +18,7 @@
 package walkingkooka.j2cl.java.text.annotationprocessor;
 
 import org.junit.jupiter.api.Test;
-import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
 import walkingkooka.text.printer.IndentingPrinter;
 
@@ -27,8 +27,13 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public final class DecimalFormatProviderToolTest extends ProviderToolTestCase<DecimalFormatProviderTool> {
 
@@ -728,10 +733,86 @@ public final class DecimalFormatProviderToolTest extends ProviderToolTestCase<De
 // Percent positiveSuffix=٪
 // Percent roundingMode=HALF_EVEN
 
+    @Test
+    public void testParallelSameAsSequential() throws IOException {
+        final String filter = "*";
+
+        this.checkEquals(
+                this.generate(filter),
+                this.generate(
+                        filter,
+                        ProviderToolOptions.DEFAULT.set(ProviderToolOptions.PARALLEL, "true")
+                )
+        );
+    }
+
     @Test
     public void testGenerateReadVerify() throws IOException {
-        final String dataSource = this.generateData("*");
-        final DataInput data = StringDataInputDataOutput.input(dataSource);
+        this.generateReadVerify(ProviderToolOptions.DEFAULT);
+    }
+
+    @Test
+    public void testGenerateReadVerifyCompact() throws IOException {
+        this.generateReadVerify(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.ENCODING, "compact"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyTables() throws IOException {
+        this.generateReadVerifyOptions(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_TABLES, "true"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyTablesCompact() throws IOException {
+        this.generateReadVerifyOptions(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_TABLES, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public void testGenerateReadVerifyReferences() throws IOException {
+        this.generateReadVerifyOptions(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_REFERENCES, "true"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyReferencesTablesCompact() throws IOException {
+        this.generateReadVerifyOptions(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_REFERENCES, "true")
+                        .set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_TABLES, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public void testGenerateReadVerifyCompiled() throws IOException {
+        this.generateReadVerifyOptions(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_COMPILED, "true"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyCompiledReferencesTablesCompact() throws IOException {
+        this.generateReadVerifyOptions(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_COMPILED, "true")
+                        .set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_REFERENCES, "true")
+                        .set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_TABLES, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public void testReferencesSmaller() throws IOException {
+        final ProviderToolOptions references = ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_PROVIDER_REFERENCES, "true");
+        final int referencesLength = this.generateData("*", references).length();
+        final int length = this.generateData("*").length();
+
+        this.checkEquals(
+                true,
+                referencesLength < length,
+                () -> "references " + referencesLength + " should be smaller than " + length
+        );
+    }
+
+    private void generateReadVerify(final ProviderToolOptions options) throws IOException {
+        final DataInput data = this.generateDataInput("*", options);
         final int count = data.readInt();
 
         for (int i = 0; i < count; i++) {
@@ -929,6 +1010,273 @@ public final class DecimalFormatProviderToolTest extends ProviderToolTestCase<De
         }
     }
 
+    /**
+     * Reads and verifies data written with any of the tables, references or compiled options.
+     */
+    private void generateReadVerifyOptions(final ProviderToolOptions options) throws IOException {
+        final DataInput data = this.generateDataInput("*", options);
+        final boolean references = options.decimalFormatProviderReferences();
+        final boolean compiled = options.decimalFormatProviderCompiled();
+
+        final List<List<List<Object>>> tables = Lists.array();
+        if (options.decimalFormatProviderTables()) {
+            for (int i = 0; i < VARIANTS.length; i++) {
+                final List<List<Object>> table = Lists.array();
+                final int count = data.readInt();
+                for (int j = 0; j < count; j++) {
+                    table.add(readDecimalFormat(data, references, compiled, table));
+                }
+                tables.add(table);
+            }
+        }
+
+        final int count = data.readInt();
+
+        for (int i = 0; i < count; i++) {
+            final Set<Locale> locales = this.readLocales(data);
+            final List<List<Object>> previous = Lists.array();
+
+            for (int j = 0; j < VARIANTS.length; j++) {
+                final String variant = VARIANTS[j];
+                final List<Object> values = tables.isEmpty() ?
+                        readDecimalFormat(data, references, compiled, previous) :
+                        tables.get(j).get(data.readInt());
+                previous.add(values);
+
+                for (final Locale locale : locales) {
+                    final DecimalFormat format = decimalFormat(variant, locale);
+                    if (compiled) {
+                        this.checkCompiled(format, values, () -> variant + " " + locale);
+                    } else {
+                        this.checkEquals(values(format),
+                                values,
+                                () -> variant + " " + locale);
+                    }
+                }
+            }
+        }
+    }
+
+    private final static String[] VARIANTS = {"currency", "instance", "integer", "number", "percent"};
+
+    private static List<Object> readDecimalFormat(final DataInput data,
+                                                  final boolean references,
+                                                  final boolean compiled,
+                                                  final List<List<Object>> previous) throws IOException {
+        final int reference = references ?
+                data.readInt() :
+                DecimalFormatProviderTool.NO_REFERENCE;
+
+        final int overrides;
+        final List<Object> base;
+        if (DecimalFormatProviderTool.NO_REFERENCE == reference) {
+            overrides = -1;
+            base = Lists.array();
+        } else {
+            overrides = data.readInt();
+            base = previous.get(reference);
+        }
+
+        return compiled ?
+                readCompiledDecimalFormat(data, overrides, base) :
+                readDecimalFormat(data, overrides, base);
+    }
+
+    /**
+     * Reads the fields with a bit set in overrides, taking all other fields from the reference.
+     */
+    private static List<Object> readDecimalFormat(final DataInput data,
+                                                  final int overrides,
+                                                  final List<Object> reference) throws IOException {
+        final List<Object> values = Lists.array();
+        values.add(0 != (overrides & (1 << 0)) ? data.readBoolean() : reference.get(0)); // decimalSeparatorAlwaysShown
+        values.add(0 != (overrides & (1 << 1)) ? data.readInt() : reference.get(1)); // groupingSize
+        values.add(0 != (overrides & (1 << 2)) ? data.readBoolean() : reference.get(2)); // groupingUsed
+        values.add(0 != (overrides & (1 << 3)) ? data.readInt() : reference.get(3)); // maximumFractionDigits
+        values.add(0 != (overrides & (1 << 4)) ? data.readInt() : reference.get(4)); // minimumFractionDigits
+        values.add(0 != (overrides & (1 << 5)) ? data.readInt() : reference.get(5)); // maximumIntegerDigits
+        values.add(0 != (overrides & (1 << 6)) ? data.readInt() : reference.get(6)); // minimumIntegerDigits
+        values.add(0 != (overrides & (1 << 7)) ? data.readInt() : reference.get(7)); // multiplier
+        values.add(0 != (overrides & (1 << 8)) ? data.readUTF() : reference.get(8)); // negativePrefix
+        values.add(0 != (overrides & (1 << 9)) ? data.readUTF() : reference.get(9)); // negativeSuffix
+        values.add(0 != (overrides & (1 << 10)) ? data.readInt() : reference.get(10)); // parse
+        values.add(0 != (overrides & (1 << 11)) ? data.readUTF() : reference.get(11)); // pattern
+        values.add(0 != (overrides & (1 << 12)) ? data.readUTF() : reference.get(12)); // positivePrefix
+        values.add(0 != (overrides & (1 << 13)) ? data.readUTF() : reference.get(13)); // positiveSuffix
+        values.add(0 != (overrides & (1 << 14)) ? data.readUTF() : reference.get(14)); // roundingMode
+        return values;
+    }
+
+    /**
+     * Reads the fields of a compiled format with a bit set in overrides, taking all other fields from the reference.
+     */
+    private static List<Object> readCompiledDecimalFormat(final DataInput data,
+                                                          final int overrides,
+                                                          final List<Object> reference) throws IOException {
+        final List<Object> values = Lists.array();
+        values.add(0 != (overrides & (1 << 0)) ? data.readBoolean() : reference.get(0)); // decimalSeparatorAlwaysShown
+        values.add(0 != (overrides & (1 << 1)) ? data.readInt() : reference.get(1)); // groupingSize
+        values.add(0 != (overrides & (1 << 2)) ? data.readBoolean() : reference.get(2)); // groupingUsed
+        values.add(0 != (overrides & (1 << 3)) ? data.readInt() : reference.get(3)); // maximumFractionDigits
+        values.add(0 != (overrides & (1 << 4)) ? data.readInt() : reference.get(4)); // minimumFractionDigits
+        values.add(0 != (overrides & (1 << 5)) ? data.readInt() : reference.get(5)); // maximumIntegerDigits
+        values.add(0 != (overrides & (1 << 6)) ? data.readInt() : reference.get(6)); // minimumIntegerDigits
+        values.add(0 != (overrides & (1 << 7)) ? data.readInt() : reference.get(7)); // multiplier
+        values.add(0 != (overrides & (1 << 8)) ? data.readUTF() : reference.get(8)); // negativePrefix
+        values.add(0 != (overrides & (1 << 9)) ? data.readUTF() : reference.get(9)); // negativeSuffix
+        values.add(0 != (overrides & (1 << 10)) ? data.readInt() : reference.get(10)); // parse
+        values.add(0 != (overrides & (1 << 11)) ? data.readUTF() : reference.get(11)); // positivePrefix
+        values.add(0 != (overrides & (1 << 12)) ? data.readUTF() : reference.get(12)); // positiveSuffix
+        values.add(0 != (overrides & (1 << 13)) ? data.readUTF() : reference.get(13)); // roundingMode
+        values.add(0 != (overrides & (1 << 14)) ? readAffix(data) : reference.get(14)); // negativePrefixTokens
+        values.add(0 != (overrides & (1 << 15)) ? readAffix(data) : reference.get(15)); // negativeSuffixTokens
+        values.add(0 != (overrides & (1 << 16)) ? readAffix(data) : reference.get(16)); // positivePrefixTokens
+        values.add(0 != (overrides & (1 << 17)) ? readAffix(data) : reference.get(17)); // positiveSuffixTokens
+        values.add(0 != (overrides & (1 << 18)) ? data.readInt() : reference.get(18)); // minimumExponentDigits
+        return values;
+    }
+
+    private static List<Object> readAffix(final DataInput data) throws IOException {
+        final List<Object> tokens = Lists.array();
+        final int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            final int kind = data.readInt();
+            tokens.add(ProviderToolDecimalFormatPattern.LITERAL == kind ?
+                    data.readUTF() :
+                    kind);
+        }
+        return tokens;
+    }
+
+    /**
+     * Verifies the compiled values, expanding each affix with the symbols of the format, which must give the same text as
+     * the affixes of the format.
+     */
+    private void checkCompiled(final DecimalFormat format,
+                               final List<Object> values,
+                               final Supplier<String> message) {
+        final List<Object> expected = Lists.array();
+        expected.addAll(values(format));
+        expected.remove(11); // pattern
+        this.checkEquals(expected, values.subList(0, expected.size()), message);
+
+        // single character symbols, so the affixes may be expanded using the public getters
+        final DecimalFormat singleCharacterSymbols = (DecimalFormat) format.clone();
+        final DecimalFormatSymbols symbols = singleCharacterSymbols.getDecimalFormatSymbols();
+        symbols.setMinusSign(symbols.getMinusSign());
+        symbols.setPercent(symbols.getPercent());
+        symbols.setPerMill(symbols.getPerMill());
+        singleCharacterSymbols.setDecimalFormatSymbols(symbols);
+
+        this.checkEquals(
+                Lists.of(
+                        singleCharacterSymbols.getNegativePrefix(),
+                        singleCharacterSymbols.getNegativeSuffix(),
+                        singleCharacterSymbols.getPositivePrefix(),
+                        singleCharacterSymbols.getPositiveSuffix()
+                ),
+                values.subList(14, 18)
+                        .stream()
+                        .map(a -> expandAffix((List<?>) a, symbols))
+                        .collect(Collectors.toList()),
+                message
+        );
+
+        this.checkEquals(
+                format.toPattern().indexOf('E') != -1,
+                ProviderToolDecimalFormatPattern.NO_EXPONENT != (int) (Integer) values.get(18),
+                message
+        );
+    }
+
+    private static String expandAffix(final List<?> tokens,
+                                      final DecimalFormatSymbols symbols) {
+        final StringBuilder b = new StringBuilder();
+
+        for (final Object token : tokens) {
+            if (token instanceof String) {
+                b.append(token);
+            } else {
+                switch ((Integer) token) {
+                    case ProviderToolDecimalFormatPattern.MINUS:
+                        b.append(symbols.getMinusSign());
+                        break;
+                    case ProviderToolDecimalFormatPattern.PERCENT:
+                        b.append(symbols.getPercent());
+                        break;
+                    case ProviderToolDecimalFormatPattern.PER_MILLE:
+                        b.append(symbols.getPerMill());
+                        break;
+                    case ProviderToolDecimalFormatPattern.CURRENCY:
+                        b.append(symbols.getCurrencySymbol());
+                        break;
+                    case ProviderToolDecimalFormatPattern.INTERNATIONAL_CURRENCY:
+                        b.append(symbols.getInternationalCurrencySymbol());
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown token " + token);
+                }
+            }
+        }
+
+        return b.toString();
+    }
+
+    private static List<Object> values(final DecimalFormat format) {
+        int parse = DecimalFormatProviderTool.PARSE_NONE;
+        if (format.isParseIntegerOnly()) {
+            parse |= DecimalFormatProviderTool.PARSE_INTEGER_ONLY;
+        }
+        if (format.isParseBigDecimal()) {
+            parse |= DecimalFormatProviderTool.PARSE_BIG_DECIMAL;
+        }
+
+        return Lists.of(
+                format.isDecimalSeparatorAlwaysShown(),
+                format.getGroupingSize(),
+                format.isGroupingUsed(),
+                format.getMaximumFractionDigits(),
+                format.getMinimumFractionDigits(),
+                format.getMaximumIntegerDigits(),
+                format.getMinimumIntegerDigits(),
+                format.getMultiplier(),
+                format.getNegativePrefix(),
+                format.getNegativeSuffix(),
+                parse,
+                format.toPattern(),
+                format.getPositivePrefix(),
+                format.getPositiveSuffix(),
+                format.getRoundingMode().name()
+        );
+    }
+
+    private static DecimalFormat decimalFormat(final String variant,
+                                               final Locale locale) {
+        final NumberFormat format;
+
+        switch (variant) {
+            case "currency":
+                format = NumberFormat.getCurrencyInstance(locale);
+                break;
+            case "instance":
+                format = NumberFormat.getInstance(locale);
+                break;
+            case "integer":
+                format = NumberFormat.getIntegerInstance(locale);
+                break;
+            case "number":
+                format = NumberFormat.getNumberInstance(locale);
+                break;
+            case "percent":
+                format = NumberFormat.getPercentInstance(locale);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown variant " + variant);
+        }
+
+        return (DecimalFormat) format;
+    }
+
     // ClassTesting.....................................................................................................
 
     @Override
@@ -938,10 +1286,14 @@ public final class DecimalFormatProviderToolTest extends ProviderToolTestCase<De
 
     @Override
     void generate0(final Set<String> locales,
+                   final ProviderToolOptions options,
+                   final ProviderToolIndex index,
                    final DataOutput data,
                    final IndentingPrinter comments) throws IOException {
         DecimalFormatProviderTool.generate("?",
-                LocaleAwareAnnotationProcessorTool.toLocales(locales),
+                ProviderToolSnapshot.with(LocaleAwareAnnotationProcessorTool.toLocales(locales)),
+                options,
+                index,
                 data,
                 comments);
     }
@@ -17,12 +17,164 @@
 
 package walkingkooka.j2cl.java.text.annotationprocessor;
 
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
 import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.Printer;
+import walkingkooka.text.printer.Printers;
 
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.JavaFileObject;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public final class DecimalFormatSymbolsProviderAnnotationProcessorTest implements ClassTesting<DecimalFormatSymbolsProviderAnnotationProcessor> {
 
+    @Test
+    public void testLocaleTableWrittenOnceByTwoProviders() throws Exception {
+        final List<String> sources = Lists.array();
+        final List<String> messages = Lists.array();
+        final ProcessingEnvironment compilation = compilation(
+                Collections.singletonMap(ProviderToolOptions.LOCALE_TABLE, "true"),
+                sources,
+                messages
+        );
+        final Set<String> locales = Sets.of("en-AU", "fr-FR");
+
+        for (final ProviderAnnotationProcessor processor : Lists.<ProviderAnnotationProcessor>of(
+                new DecimalFormatSymbolsProviderAnnotationProcessor(),
+                new DateFormatSymbolsProviderAnnotationProcessor())) {
+            processor.init(compilation);
+
+            try (final Printer printer = Printers.sink(LineEnding.NONE)) {
+                processor.generate(
+                        "en-AU,fr-FR",
+                        locales,
+                        n -> null,
+                        StringDataInputDataOutput.output(new StringBuilder()::append),
+                        LocaleAwareAnnotationProcessor.comments(printer)
+                );
+            }
+        }
+
+        this.checkEquals(Lists.empty(), messages, "messages");
+        this.checkEquals(
+                Lists.of(ProviderToolShards.PACKAGE + "." + ProviderToolLocaleTable.CLASS_NAME),
+                sources,
+                "sources"
+        );
+    }
+
+    /**
+     * A {@link ProcessingEnvironment} with the given options, whose {@link Filer} fails when a source is created twice,
+     * as a real compilation does, and whose {@link Messager} records every message.
+     */
+    private static ProcessingEnvironment compilation(final Map<String, String> options,
+                                                     final List<String> sources,
+                                                     final List<String> messages) {
+        final Filer filer = proxy(
+                Filer.class,
+                (method, args) -> {
+                    if (false == "createSourceFile".equals(method)) {
+                        throw new UnsupportedOperationException(method);
+                    }
+                    final String name = args[0].toString();
+                    if (sources.contains(name)) {
+                        throw new FilerException("Attempt to recreate " + name);
+                    }
+                    sources.add(name);
+                    return proxy(
+                            JavaFileObject.class,
+                            (fileMethod, fileArgs) -> {
+                                if (false == "openWriter".equals(fileMethod)) {
+                                    throw new UnsupportedOperationException(fileMethod);
+                                }
+                                return new StringWriter();
+                            }
+                    );
+                }
+        );
+        final Messager messager = proxy(
+                Messager.class,
+                (method, args) -> {
+                    messages.add(args[0] + " " + args[1]);
+                    return null;
+                }
+        );
+
+        return proxy(
+                ProcessingEnvironment.class,
+                (method, args) -> {
+                    final Object result;
+                    switch (method) {
+                        case "getOptions":
+                            result = options;
+                            break;
+                        case "getFiler":
+                            result = filer;
+                            break;
+                        case "getMessager":
+                            result = messager;
+                            break;
+                        default:
+                            throw new UnsupportedOperationException(method);
+                    }
+                    return result;
+                }
+        );
+    }
+
+    @FunctionalInterface
+    interface ProxyMethod {
+        Object invoke(final String method,
+                      final Object[] args) throws Exception;
+    }
+
+    /**
+     * Creates a proxy that compares by identity and sends every other method to the given {@link ProxyMethod}.
+     */
+    private static <T> T proxy(final Class<T> type,
+                               final ProxyMethod method) {
+        return type.cast(
+                Proxy.newProxyInstance(
+                        type.getClassLoader(),
+                        new Class<?>[]{type},
+                        (proxy, m, args) -> {
+                            final Object result;
+                            switch (m.getName()) {
+                                case "equals":
+                                    result = proxy == args[0];
+                                    break;
+                                case "hashCode":
+                                    result = System.identityHashCode(proxy);
+                                    break;
+                                case "toString":
+                                    result = type.getSimpleName();
+                                    break;
+                                default:
+                                    result = method.invoke(m.getName(), args);
+                                    break;
+                            }
+                            return result;
+                        }
+                )
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
     @Override
     public Class<DecimalFormatSymbolsProviderAnnotationProcessor> type() {
         return DecimalFormatSymbolsProviderAnnotationProcessor.class;
@@ -18,7 +18,7 @@
 package walkingkooka.j2cl.java.text.annotationprocessor;
 
 import org.junit.jupiter.api.Test;
-import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
 import walkingkooka.text.printer.IndentingPrinter;
 
@@ -26,6 +26,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.text.DecimalFormatSymbols;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
@@ -132,43 +133,97 @@ public final class DecimalFormatSymbolsProviderToolTest extends ProviderToolTest
 
     @Test
     public void testGenerateReadVerify() throws IOException {
-        final String dataSource = this.generateData("*");
-        final DataInput data = StringDataInputDataOutput.input(dataSource);
+        this.generateReadVerify(ProviderToolOptions.DEFAULT);
+    }
+
+    @Test
+    public void testGenerateReadVerifyCompact() throws IOException {
+        this.generateReadVerify(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.ENCODING, "compact"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyDelta() throws IOException {
+        this.generateReadVerify(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_SYMBOLS_PROVIDER_DELTA, "true"));
+    }
+
+    @Test
+    public void testGenerateReadVerifyDeltaCompact() throws IOException {
+        this.generateReadVerify(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_SYMBOLS_PROVIDER_DELTA, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public void testDeltaSmaller() throws IOException {
+        final ProviderToolOptions delta = ProviderToolOptions.DEFAULT.set(ProviderToolOptions.DECIMAL_FORMAT_SYMBOLS_PROVIDER_DELTA, "true");
+        final int deltaLength = this.generateData("*", delta).length();
+        final int length = this.generateData("*").length();
+
+        this.checkEquals(
+                true,
+                deltaLength < length,
+                () -> "delta " + deltaLength + " should be smaller than " + length
+        );
+    }
+
+    private void generateReadVerify(final ProviderToolOptions options) throws IOException {
+        final DataInput data = this.generateDataInput("*", options);
+        final boolean delta = options.decimalFormatSymbolsProviderDelta();
+        final List<List<Object>> previous = Lists.array();
         final int count = data.readInt();
 
         for (int i = 0; i < count; i++) {
             final Set<Locale> locales = this.readLocales(data);
 
-            final char decimalSeparator = data.readChar();
-            final char digit = data.readChar();
-            final String exponentSeparator = data.readUTF();
-            final char groupingSeparator = data.readChar();
-            final String infinity = data.readUTF();
-            final String internationalCurrencySymbol = data.readUTF();
-            final char minusSign = data.readChar();
-            final char monetaryDecimalSeparator = data.readChar();
-            final String nan = data.readUTF();
-            final char patternSeparator = data.readChar();
-            final char percent = data.readChar();
-            final char perMill = data.readChar();
-            final char zeroDigit = data.readChar();
+            final int base = delta ?
+                    data.readInt() :
+                    ProviderToolDelta.NO_BASE;
+            final int differences = ProviderToolDelta.NO_BASE != base ?
+                    data.readInt() :
+                    -1;
+            final List<Object> read = ProviderToolDelta.NO_BASE != base ?
+                    previous.get(base) :
+                    null;
+
+            final List<Object> values = Lists.array();
+            values.add(0 != (differences & (1 << 0)) ? data.readChar() : read.get(0)); // decimalSeparator
+            values.add(0 != (differences & (1 << 1)) ? data.readChar() : read.get(1)); // digit
+            values.add(0 != (differences & (1 << 2)) ? data.readUTF() : read.get(2)); // exponentSeparator
+            values.add(0 != (differences & (1 << 3)) ? data.readChar() : read.get(3)); // groupingSeparator
+            values.add(0 != (differences & (1 << 4)) ? data.readUTF() : read.get(4)); // infinity
+            values.add(0 != (differences & (1 << 5)) ? data.readUTF() : read.get(5)); // internationalCurrencySymbol
+            values.add(0 != (differences & (1 << 6)) ? data.readChar() : read.get(6)); // minusSign
+            values.add(0 != (differences & (1 << 7)) ? data.readChar() : read.get(7)); // monetaryDecimalSeparator
+            values.add(0 != (differences & (1 << 8)) ? data.readUTF() : read.get(8)); // nan
+            values.add(0 != (differences & (1 << 9)) ? data.readChar() : read.get(9)); // patternSeparator
+            values.add(0 != (differences & (1 << 10)) ? data.readChar() : read.get(10)); // percent
+            values.add(0 != (differences & (1 << 11)) ? data.readChar() : read.get(11)); // perMill
+            values.add(0 != (differences & (1 << 12)) ? data.readChar() : read.get(12)); // zeroDigit
+            previous.add(values);
 
             for (final Locale locale : locales) {
                 final DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
 
-                this.checkEquals(symbols.getDecimalSeparator(), decimalSeparator, () -> "decimalSeparator for " + locale);
-                this.checkEquals(symbols.getDigit(), digit, () -> "digit for " + locale);
-                this.checkEquals(symbols.getExponentSeparator(), exponentSeparator, () -> "exponentSeparator for " + locale);
-                this.checkEquals(symbols.getGroupingSeparator(), groupingSeparator, () -> "groupingSeparator for " + locale);
-                this.checkEquals(symbols.getInfinity(), infinity, () -> "infinity for " + locale);
-                this.checkEquals(symbols.getInternationalCurrencySymbol(), internationalCurrencySymbol, () -> "internationalCurrencySymbol for " + locale);
-                this.checkEquals(symbols.getMinusSign(), minusSign, () -> "minusSign for " + locale);
-                this.checkEquals(symbols.getMonetaryDecimalSeparator(), monetaryDecimalSeparator, () -> "monetaryDecimalSeparator for " + locale);
-                this.checkEquals(symbols.getNaN(), nan, () -> "nan for " + locale);
-                this.checkEquals(symbols.getPatternSeparator(), patternSeparator, () -> "patternSeparator for " + locale);
-                this.checkEquals(symbols.getPercent(), percent, () -> "percent for " + locale);
-                this.checkEquals(symbols.getPerMill(), perMill, () -> "perMill for " + locale);
-                this.checkEquals(symbols.getZeroDigit(), zeroDigit, () -> "zeroDigit for " + locale);
+                this.checkEquals(
+                        Lists.of(
+                                symbols.getDecimalSeparator(),
+                                symbols.getDigit(),
+                                symbols.getExponentSeparator(),
+                                symbols.getGroupingSeparator(),
+                                symbols.getInfinity(),
+                                symbols.getInternationalCurrencySymbol(),
+                                symbols.getMinusSign(),
+                                symbols.getMonetaryDecimalSeparator(),
+                                symbols.getNaN(),
+                                symbols.getPatternSeparator(),
+                                symbols.getPercent(),
+                                symbols.getPerMill(),
+                                symbols.getZeroDigit()
+                        ),
+                        values,
+                        () -> "symbols for " + locale
+                );
             }
         }
     }
@@ -182,10 +237,14 @@ public final class DecimalFormatSymbolsProviderToolTest extends ProviderToolTest
 
     @Override
     void generate0(final Set<String> locales,
+                   final ProviderToolOptions options,
+                   final ProviderToolIndex index,
                    final DataOutput data,
                    final IndentingPrinter comments) throws IOException {
         DecimalFormatSymbolsProviderTool.generate("?",
-                LocaleAwareAnnotationProcessorTool.toLocales(locales),
+                ProviderToolSnapshot.with(LocaleAwareAnnotationProcessorTool.toLocales(locales)),
+                options,
+                index,
                 data,
                 comments);
     }
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.Printer;
+import walkingkooka.text.printer.Printers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public final class ProviderToolCacheTest implements ClassTesting<ProviderToolCache> {
+
+    @Test
+    public void testMissThenHit() throws Exception {
+        final Path directory = Files.createTempDirectory(this.getClass().getSimpleName());
+        final ProviderToolCache cache = ProviderToolCache.with(directory);
+        final AtomicInteger generated = new AtomicInteger();
+        final String filter = "en-AU,en-NZ,fr-FR";
+
+        final String expected = this.generate(filter, null, generated);
+        this.checkEquals(1, generated.get(), () -> "generated");
+
+        this.checkEquals(expected, this.generate(filter, cache, generated), () -> "miss");
+        this.checkEquals(2, generated.get(), () -> "generated after miss");
+
+        this.checkEquals(expected, this.generate(filter, cache, generated), () -> "hit");
+        this.checkEquals(2, generated.get(), () -> "generated after hit");
+    }
+
+    @Test
+    public void testCorruptEntryRegenerates() throws Exception {
+        final Path directory = Files.createTempDirectory(this.getClass().getSimpleName());
+        final ProviderToolCache cache = ProviderToolCache.with(directory);
+        final AtomicInteger generated = new AtomicInteger();
+        final String filter = "en-AU";
+
+        final String expected = this.generate(filter, cache, generated);
+
+        try (final Stream<Path> entries = Files.list(directory)) {
+            for (final Path entry : (Iterable<Path>) entries::iterator) {
+                Files.write(entry, new byte[]{1, 2, 3});
+            }
+        }
+
+        this.checkEquals(expected, this.generate(filter, cache, generated), () -> "regenerated");
+        this.checkEquals(2, generated.get(), () -> "generated");
+    }
+
+    @Test
+    public void testCorruptNegativeLengthRegenerates() throws Exception {
+        this.corruptLengthAndCheck(-1);
+    }
+
+    @Test
+    public void testCorruptHugeLengthRegenerates() throws Exception {
+        this.corruptLengthAndCheck(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Overwrites the length of the summary, which follows the magic and version, and verifies the entry is regenerated
+     * and saved again.
+     */
+    private void corruptLengthAndCheck(final int length) throws Exception {
+        final Path directory = Files.createTempDirectory(this.getClass().getSimpleName());
+        final ProviderToolCache cache = ProviderToolCache.with(directory);
+        final AtomicInteger generated = new AtomicInteger();
+        final String filter = "en-AU";
+
+        final String expected = this.generate(filter, cache, generated);
+
+        final List<Path> entries;
+        try (final Stream<Path> list = Files.list(directory)) {
+            entries = list.collect(Collectors.toList());
+        }
+        this.checkEquals(1, entries.size(), () -> "entries");
+
+        final Path entry = entries.get(0);
+        final byte[] saved = Files.readAllBytes(entry);
+        final int offset = 2 + ProviderToolCacheTest.MAGIC_LENGTH + 4;
+        final byte[] corrupt = saved.clone();
+        corrupt[offset] = (byte) (length >> 24);
+        corrupt[offset + 1] = (byte) (length >> 16);
+        corrupt[offset + 2] = (byte) (length >> 8);
+        corrupt[offset + 3] = (byte) length;
+        Files.write(entry, corrupt);
+
+        this.checkEquals(expected, this.generate(filter, cache, generated), () -> "regenerated");
+        this.checkEquals(2, generated.get(), () -> "generated");
+        this.checkEquals(
+                Arrays.toString(saved),
+                Arrays.toString(Files.readAllBytes(entry)),
+                () -> "saved again"
+        );
+    }
+
+    private final static int MAGIC_LENGTH = "walkingkooka-j2cl-java-text-annotation-processor-cache".length();
+
+    private String generate(final String filter,
+                            final ProviderToolCache cache,
+                            final AtomicInteger generated) throws Exception {
+        final Set<Locale> locales = LocaleAwareAnnotationProcessorTool.toLocales(WalkingkookaLanguageTag.all(filter));
+        final StringBuilder comments = new StringBuilder();
+        final StringBuilder data = new StringBuilder();
+
+        try (final Printer printer = Printers.stringBuilder(comments, LineEnding.NL)) {
+            final ProviderToolCache.Generator generator = (d, c) -> {
+                generated.incrementAndGet();
+                return DecimalFormatSymbolsProviderTool.generate(filter, locales, d, c);
+            };
+            final String summary = null != cache ?
+                    cache.generate(filter, StringDataInputDataOutput.output(data::append), LocaleAwareAnnotationProcessor.comments(printer), generator) :
+                    generator.generate(StringDataInputDataOutput.output(data::append), LocaleAwareAnnotationProcessor.comments(printer));
+            printer.flush();
+
+            return summary + "\n" + comments + "\n" + data;
+        }
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolCache> type() {
+        return ProviderToolCache.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+
+public final class ProviderToolChunksTest implements ClassTesting<ProviderToolChunks> {
+
+    @Test
+    public void testSplitEmpty() {
+        this.splitAndCheck("", 3, "");
+    }
+
+    @Test
+    public void testSplitFits() {
+        this.splitAndCheck("abc", 3, "abc");
+    }
+
+    @Test
+    public void testSplit() {
+        this.splitAndCheck("abcdefg", 3, "abc", "def", "g");
+    }
+
+    @Test
+    public void testSplitTwoByteChar() {
+        this.splitAndCheck("a\u00e9b", 2, "a", "\u00e9", "b");
+    }
+
+    @Test
+    public void testSplitThreeByteChar() {
+        this.splitAndCheck("ab\u20ac", 4, "ab", "\u20ac");
+    }
+
+    @Test
+    public void testSplitNul() {
+        this.splitAndCheck("\u0000a", 2, "\u0000", "a");
+    }
+
+    @Test
+    public void testSplitSurrogatePair() {
+        this.splitAndCheck("a\uD83D\uDE00b", 6, "a", "\uD83D\uDE00", "b");
+    }
+
+    @Test
+    public void testSplitMaxBytes() {
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < ProviderToolChunks.MAX_BYTES + 1; i++) {
+            data.append('x');
+        }
+
+        final List<String> chunks = ProviderToolChunks.split(data, ProviderToolChunks.MAX_BYTES);
+        this.checkEquals(2, chunks.size(), "chunks");
+        this.checkEquals(ProviderToolChunks.MAX_BYTES, chunks.get(0).length(), "first chunk");
+        this.checkEquals("x", chunks.get(1), "last chunk");
+    }
+
+    private void splitAndCheck(final String data,
+                               final int maxBytes,
+                               final String... chunks) {
+        this.checkEquals(
+                Lists.of(chunks),
+                ProviderToolChunks.split(data, maxBytes),
+                () -> "split " + maxBytes
+        );
+    }
+
+    @Test
+    public void testClassName() {
+        this.checkEquals("DecimalFormatProviderChunks", ProviderToolChunks.className("DecimalFormatProvider"));
+    }
+
+    @Test
+    public void testSource() {
+        this.checkEquals(
+                "package walkingkooka.j2cl.java.text.generated;\n" +
+                        "\n" +
+                        "public final class DecimalFormatProviderChunks {\n" +
+                        "\n" +
+                        "  public final static String[] CHUNKS = {\n" +
+                        "    \"1,1,\",\n" +
+                        "    \"de-DE\",\n" +
+                        "  };\n" +
+                        "\n" +
+                        "  private static String data;\n" +
+                        "\n" +
+                        "  public static String data() {\n" +
+                        "    String data = DecimalFormatProviderChunks.data;\n" +
+                        "    if (null == data) {\n" +
+                        "      final StringBuilder b = new StringBuilder();\n" +
+                        "      for (final String chunk : CHUNKS) {\n" +
+                        "        b.append(chunk);\n" +
+                        "      }\n" +
+                        "      data = b.toString();\n" +
+                        "      DecimalFormatProviderChunks.data = data;\n" +
+                        "    }\n" +
+                        "    return data;\n" +
+                        "  }\n" +
+                        "\n" +
+                        "  private DecimalFormatProviderChunks() {\n" +
+                        "    throw new UnsupportedOperationException();\n" +
+                        "  }\n" +
+                        "}\n",
+                ProviderToolChunks.source(
+                        "DecimalFormatProvider",
+                        Lists.of("1,1,", "de-DE")
+                )
+        );
+    }
+
+    @Test
+    public void testSourceStartAndEnd() {
+        final String provider = "DecimalFormatProvider";
+
+        this.checkEquals(
+                ProviderToolChunks.source(
+                        provider,
+                        Lists.of("1,1,", "de-DE")
+                ),
+                ProviderToolChunks.sourceStart(provider) +
+                        "    \"1,1,\",\n" +
+                        "    \"de-DE\",\n" +
+                        ProviderToolChunks.sourceEnd(provider)
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolChunks> type() {
+        return ProviderToolChunks.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
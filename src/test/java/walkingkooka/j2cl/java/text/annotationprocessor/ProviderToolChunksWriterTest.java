@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CharSequences;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ProviderToolChunksWriterTest implements ClassTesting<ProviderToolChunksWriter> {
+
+    @Test
+    public void testEmpty() throws IOException {
+        this.writeAndCheck(3, Lists.of(""));
+    }
+
+    @Test
+    public void testFits() throws IOException {
+        this.writeAndCheck(3, Lists.of("abc"), "ab", "c");
+    }
+
+    @Test
+    public void testSplit() throws IOException {
+        this.writeAndCheck(3, Lists.of("abc", "def", "g"), "ab", "cdef", "g");
+    }
+
+    @Test
+    public void testEscaped() throws IOException {
+        this.writeAndCheck(
+                100,
+                Lists.of("\t\n\r\"\\\u00001\u001f\u007f\u00e9\u20ac"),
+                "\t\n\r\"\\\u00001\u001f\u007f\u00e9\u20ac"
+        );
+    }
+
+    @Test
+    public void testSplitTwoByteChar() throws IOException {
+        this.writeAndCheck(2, Lists.of("a", "\u00e9", "b"), "a\u00e9b");
+    }
+
+    @Test
+    public void testSplitNul() throws IOException {
+        this.writeAndCheck(2, Lists.of("\u0000", "a"), "\u0000a");
+    }
+
+    @Test
+    public void testSplitSurrogatePair() throws IOException {
+        this.writeAndCheck(6, Lists.of("a", "\uD83D\uDE00", "b"), "a\uD83D", "\uDE00b");
+    }
+
+    @Test
+    public void testSameChunksAsSplit() throws IOException {
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < ProviderToolChunks.MAX_BYTES + 1; i++) {
+            data.append('x');
+        }
+
+        this.writeAndCheck(
+                ProviderToolChunks.MAX_BYTES,
+                ProviderToolChunks.split(data, ProviderToolChunks.MAX_BYTES),
+                data.toString()
+        );
+    }
+
+    @Test
+    public void testAppendFails() {
+        final IOException cause = new IOException("fail");
+        final ProviderToolChunksWriter chunks = ProviderToolChunksWriter.with(
+                new Writer() {
+                    @Override
+                    public void write(final char[] chars,
+                                      final int offset,
+                                      final int length) throws IOException {
+                        throw cause;
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                },
+                3,
+                "|"
+        );
+
+        this.checkEquals(
+                cause,
+                assertThrows(UncheckedIOException.class, () -> chunks.append("abcd")).getCause()
+        );
+    }
+
+    private void writeAndCheck(final int maxBytes,
+                               final List<String> chunks,
+                               final String... appends) throws IOException {
+        final StringWriter writer = new StringWriter();
+        final ProviderToolChunksWriter chunksWriter = ProviderToolChunksWriter.with(writer, maxBytes, "|");
+
+        for (final String append : appends) {
+            chunksWriter.append(append);
+        }
+        chunksWriter.end();
+
+        this.checkEquals(
+                chunks.stream()
+                        .map(c -> CharSequences.quoteAndEscape(c).toString())
+                        .collect(Collectors.joining("|")),
+                writer.toString()
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolChunksWriter> type() {
+        return ProviderToolChunksWriter.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
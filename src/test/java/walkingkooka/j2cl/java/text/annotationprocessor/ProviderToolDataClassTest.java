@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Locale;
+
+public final class ProviderToolDataClassTest implements ClassTesting<ProviderToolDataClass> {
+
+    @Test
+    public void testSource() {
+        final ProviderToolDataClass dataClass = ProviderToolDataClass.empty();
+        final ProviderToolIndex index = ProviderToolIndex.with(dataClass::count);
+
+        dataClass.writeInt(1);
+        index.record(Sets.of(Locale.forLanguageTag("en-AU")));
+        dataClass.writeInt(1);
+        dataClass.writeUTF("en-AU");
+        dataClass.writeChar('.');
+        dataClass.writeBoolean(true);
+
+        this.checkEquals(
+                "package test;\n" +
+                        "\n" +
+                        "public final class TestProviderData {\n" +
+                        "\n" +
+                        "  public static int record(final String languageTag) {\n" +
+                        "    final int record;\n" +
+                        "\n" +
+                        "    switch (languageTag) {\n" +
+                        "      case \"en-AU\":\n" +
+                        "        record = 0;\n" +
+                        "        break;\n" +
+                        "      default:\n" +
+                        "        record = -1;\n" +
+                        "        break;\n" +
+                        "    }\n" +
+                        "\n" +
+                        "    return record;\n" +
+                        "  }\n" +
+                        column("boolean", "booleans", "", "true") +
+                        column("char", "chars", "", "'.'") +
+                        column("int", "ints", "1", "1") +
+                        column("String", "strings", "", "\"en-AU\"") +
+                        "}\n",
+                dataClass.source("TestProvider", "test", index)
+        );
+    }
+
+    @Test
+    public void testSourceOtherTypes() {
+        final ProviderToolDataClass dataClass = ProviderToolDataClass.empty();
+        final ProviderToolIndex index = ProviderToolIndex.with(dataClass::count);
+
+        index.record(Sets.of(Locale.forLanguageTag("en-AU")));
+        dataClass.writeLong(2);
+        dataClass.writeFloat(Float.NaN);
+        dataClass.writeDouble(1.5);
+        dataClass.writeBytes("A");
+        dataClass.writeChars("b");
+
+        this.checkEquals(
+                "package test;\n" +
+                        "\n" +
+                        "public final class TestProviderData {\n" +
+                        "\n" +
+                        "  public static int record(final String languageTag) {\n" +
+                        "    final int record;\n" +
+                        "\n" +
+                        "    switch (languageTag) {\n" +
+                        "      case \"en-AU\":\n" +
+                        "        record = 0;\n" +
+                        "        break;\n" +
+                        "      default:\n" +
+                        "        record = -1;\n" +
+                        "        break;\n" +
+                        "    }\n" +
+                        "\n" +
+                        "    return record;\n" +
+                        "  }\n" +
+                        column("char", "chars", "", "'b'") +
+                        column("int", "ints", "", "65") +
+                        column("long", "longs", "", "2L") +
+                        column("float", "floats", "", "Float.NaN") +
+                        column("double", "doubles", "", "1.5D") +
+                        "}\n",
+                dataClass.source("TestProvider", "test", index)
+        );
+    }
+
+    private static String column(final String type,
+                                 final String name,
+                                 final String header,
+                                 final String record0) {
+        final String headerName = "header" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        return "\n" +
+                "  public static " + type + "[] " + headerName + "() {\n" +
+                "    return new " + type + "[]{" + header + "};\n" +
+                "  }\n" +
+                "\n" +
+                "  public static " + type + "[] " + name + "(final int record) {\n" +
+                "    final " + type + "[] values;\n" +
+                "\n" +
+                "    switch (record) {\n" +
+                "      case 0:\n" +
+                "        values = " + name + "0();\n" +
+                "        break;\n" +
+                "      default:\n" +
+                "        values = null;\n" +
+                "        break;\n" +
+                "    }\n" +
+                "\n" +
+                "    return values;\n" +
+                "  }\n" +
+                "\n" +
+                "  private static " + type + "[] " + name + "0() {\n" +
+                "    return new " + type + "[]{" + record0 + "};\n" +
+                "  }\n";
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolDataClass> type() {
+        return ProviderToolDataClass.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
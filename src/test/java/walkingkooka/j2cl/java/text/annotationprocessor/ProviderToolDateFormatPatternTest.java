@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ProviderToolDateFormatPatternTest implements ClassTesting<ProviderToolDateFormatPattern> {
+
+    @Test
+    public void testParseUnterminatedQuoteFails() {
+        assertThrows(IllegalArgumentException.class, () -> ProviderToolDateFormatPattern.parse("h 'at"));
+    }
+
+    @Test
+    public void testParseFields() {
+        this.parseAndCheck(
+                "yyyyMMdd",
+                "y4 M2 d2",
+                Lists.empty()
+        );
+    }
+
+    @Test
+    public void testParseLiterals() {
+        this.parseAndCheck(
+                "d/M/yy, h:mm a",
+                "d1 '0 M1 '0 y2 '1 h1 '2 m2 '3 a1",
+                Lists.of("/", ", ", ":", " ")
+        );
+    }
+
+    @Test
+    public void testParseQuoted() {
+        this.parseAndCheck(
+                "d MMMM y 'at' h:mm:ss a",
+                "d1 '0 M4 '0 y1 '1 h1 '2 m2 '2 s2 '0 a1",
+                Lists.of(" ", " at ", ":")
+        );
+    }
+
+    @Test
+    public void testParseEscapedQuote() {
+        this.parseAndCheck(
+                "h''mm 'o''clock'",
+                "h1 '0 m2 '1",
+                Lists.of("'", " o'clock")
+        );
+    }
+
+    /**
+     * The expected tokens are a letter followed by the run length, or a quote followed by the index of the literal.
+     */
+    private void parseAndCheck(final String pattern,
+                               final String tokens,
+                               final List<String> literals) {
+        final ProviderToolDateFormatPattern parsed = ProviderToolDateFormatPattern.parse(pattern);
+        final List<String> distinct = Lists.array();
+        for (final String literal : parsed.literals()) {
+            if (false == distinct.contains(literal)) {
+                distinct.add(literal);
+            }
+        }
+
+        final StringBuilder b = new StringBuilder();
+        for (int i = 0; i < parsed.count(); i++) {
+            if (i > 0) {
+                b.append(' ');
+            }
+            final char letter = parsed.letter(i);
+            b.append(letter)
+                    .append(
+                            ProviderToolDateFormatPattern.LITERAL == letter ?
+                                    distinct.indexOf(parsed.literal(i)) :
+                                    parsed.length(i)
+                    );
+        }
+
+        this.checkEquals(tokens, b.toString(), () -> "tokens " + pattern);
+        this.checkEquals(literals, distinct, () -> "literals " + pattern);
+    }
+
+    @Test
+    public void testToPattern() {
+        this.toPatternAndCheck("d MMMM y 'at' h:mm:ss a");
+    }
+
+    @Test
+    public void testToPatternEscapedQuote() {
+        this.toPatternAndCheck("h''mm 'o''clock'");
+    }
+
+    @Test
+    public void testToPatternQuotedPunctuation() {
+        this.toPatternAndCheck("d'.'M", "d.M");
+    }
+
+    private void toPatternAndCheck(final String pattern) {
+        this.toPatternAndCheck(pattern, pattern);
+    }
+
+    private void toPatternAndCheck(final String pattern,
+                                   final String expected) {
+        this.checkEquals(expected, ProviderToolDateFormatPattern.parse(pattern).toPattern(), () -> "pattern " + pattern);
+    }
+
+    @Test
+    public void testValidateAllLocales() {
+        final Date date = new Date(1234567890123L);
+
+        for (final Locale locale : Locale.getAvailableLocales()) {
+            for (int style = DateFormat.FULL; style <= DateFormat.SHORT; style++) {
+                ProviderToolDateFormatPattern.validate((SimpleDateFormat) DateFormat.getDateInstance(style, locale), date);
+                ProviderToolDateFormatPattern.validate((SimpleDateFormat) DateFormat.getTimeInstance(style, locale), date);
+                ProviderToolDateFormatPattern.validate((SimpleDateFormat) DateFormat.getDateTimeInstance(style, style, locale), date);
+            }
+        }
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolDateFormatPattern> type() {
+        return ProviderToolDateFormatPattern.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
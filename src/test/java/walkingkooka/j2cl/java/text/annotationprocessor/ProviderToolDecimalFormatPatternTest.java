@@ -0,0 +1,236 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ProviderToolDecimalFormatPatternTest implements ClassTesting<ProviderToolDecimalFormatPattern> {
+
+    private final static int MINUS = ProviderToolDecimalFormatPattern.MINUS;
+    private final static int PERCENT = ProviderToolDecimalFormatPattern.PERCENT;
+    private final static int PER_MILLE = ProviderToolDecimalFormatPattern.PER_MILLE;
+    private final static int CURRENCY = ProviderToolDecimalFormatPattern.CURRENCY;
+    private final static int INTERNATIONAL_CURRENCY = ProviderToolDecimalFormatPattern.INTERNATIONAL_CURRENCY;
+
+    @Test
+    public void testParseMissingNumberFails() {
+        assertThrows(IllegalArgumentException.class, () -> ProviderToolDecimalFormatPattern.parse("abc"));
+    }
+
+    @Test
+    public void testParseUnterminatedQuoteFails() {
+        assertThrows(IllegalArgumentException.class, () -> ProviderToolDecimalFormatPattern.parse("#'abc"));
+    }
+
+    @Test
+    public void testParseNumberInSuffixFails() {
+        assertThrows(IllegalArgumentException.class, () -> ProviderToolDecimalFormatPattern.parse("#%#"));
+    }
+
+    @Test
+    public void testParseNumber() {
+        this.parseAndCheck(
+                "#,##0.###",
+                Lists.of(MINUS),
+                Lists.empty(),
+                Lists.empty(),
+                Lists.empty(),
+                0
+        );
+    }
+
+    @Test
+    public void testParseCurrencyPrefix() {
+        this.parseAndCheck(
+                "¤#,##0.00",
+                Lists.of(MINUS, CURRENCY),
+                Lists.empty(),
+                Lists.of(CURRENCY),
+                Lists.empty(),
+                0
+        );
+    }
+
+    @Test
+    public void testParseCurrencySuffix() {
+        this.parseAndCheck(
+                "#,##0.00 ¤",
+                Lists.of(MINUS),
+                Lists.of(" ", CURRENCY),
+                Lists.empty(),
+                Lists.of(" ", CURRENCY),
+                0
+        );
+    }
+
+    @Test
+    public void testParseInternationalCurrency() {
+        this.parseAndCheck(
+                "¤¤ #",
+                Lists.of(MINUS, INTERNATIONAL_CURRENCY, " "),
+                Lists.empty(),
+                Lists.of(INTERNATIONAL_CURRENCY, " "),
+                Lists.empty(),
+                0
+        );
+    }
+
+    @Test
+    public void testParsePercent() {
+        this.parseAndCheck(
+                "#,##0%",
+                Lists.of(MINUS),
+                Lists.of(PERCENT),
+                Lists.empty(),
+                Lists.of(PERCENT),
+                0
+        );
+    }
+
+    @Test
+    public void testParsePerMille() {
+        this.parseAndCheck(
+                "#‰",
+                Lists.of(MINUS),
+                Lists.of(PER_MILLE),
+                Lists.empty(),
+                Lists.of(PER_MILLE),
+                0
+        );
+    }
+
+    @Test
+    public void testParseQuoted() {
+        this.parseAndCheck(
+                "'#'#'x''y'",
+                Lists.of(MINUS, "#"),
+                Lists.of("x'y"),
+                Lists.of("#"),
+                Lists.of("x'y"),
+                0
+        );
+    }
+
+    @Test
+    public void testParseNegative() {
+        this.parseAndCheck(
+                "¤#,##0.00;(¤#,##0.00)",
+                Lists.of("(", CURRENCY),
+                Lists.of(")"),
+                Lists.of(CURRENCY),
+                Lists.empty(),
+                0
+        );
+    }
+
+    @Test
+    public void testParseExponent() {
+        this.parseAndCheck(
+                "0.###E00",
+                Lists.of(MINUS),
+                Lists.empty(),
+                Lists.empty(),
+                Lists.empty(),
+                2
+        );
+    }
+
+    @Test
+    public void testParseExponentPrefixIsLiteral() {
+        this.parseAndCheck(
+                "E#0",
+                Lists.of(MINUS, "E"),
+                Lists.empty(),
+                Lists.of("E"),
+                Lists.empty(),
+                0
+        );
+    }
+
+    @Test
+    public void testParseExponentSuffixIsLiteral() {
+        this.parseAndCheck(
+                "#0 E",
+                Lists.of(MINUS),
+                Lists.of(" E"),
+                Lists.empty(),
+                Lists.of(" E"),
+                0
+        );
+    }
+
+    @Test
+    public void testParseGroupingSizeIgnored() {
+        this.parseAndCheck(
+                "#,##,##0.###",
+                Lists.of(MINUS),
+                Lists.empty(),
+                Lists.empty(),
+                Lists.empty(),
+                0
+        );
+    }
+
+    private void parseAndCheck(final String pattern,
+                               final List<Object> negativePrefix,
+                               final List<Object> negativeSuffix,
+                               final List<Object> positivePrefix,
+                               final List<Object> positiveSuffix,
+                               final int minimumExponentDigits) {
+        this.checkEquals(
+                Lists.of(
+                        negativePrefix,
+                        negativeSuffix,
+                        positivePrefix,
+                        positiveSuffix,
+                        minimumExponentDigits
+                ),
+                ProviderToolDecimalFormatPattern.parse(pattern).values(),
+                () -> "pattern " + pattern
+        );
+    }
+
+    @Test
+    public void testAffixToString() {
+        this.checkEquals(
+                "-¤¤'x''y'%‰¤",
+                ProviderToolDecimalFormatPattern.affixToString(
+                        Lists.of(MINUS, INTERNATIONAL_CURRENCY, "x'y", PERCENT, PER_MILLE, CURRENCY)
+                )
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolDecimalFormatPattern> type() {
+        return ProviderToolDecimalFormatPattern.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
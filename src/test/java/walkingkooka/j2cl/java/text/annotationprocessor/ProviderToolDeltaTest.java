@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+
+public final class ProviderToolDeltaTest implements ClassTesting<ProviderToolDelta> {
+
+    @Test
+    public void testDifferencesSame() {
+        this.differencesAndCheck(
+                Lists.of("a", 'b', new String[]{"c"}),
+                Lists.of("a", 'b', new String[]{"c"}),
+                0
+        );
+    }
+
+    @Test
+    public void testDifferences() {
+        this.differencesAndCheck(
+                Lists.of("a", 'b', new String[]{"c"}),
+                Lists.of("a", 'B', new String[]{"C"}),
+                0b110
+        );
+    }
+
+    private void differencesAndCheck(final List<Object> values,
+                                     final List<Object> base,
+                                     final int expected) {
+        this.checkEquals(expected, ProviderToolDelta.differences(values, base));
+    }
+
+    @Test
+    public void testBaseNone() {
+        this.baseAndCheck(
+                Lists.of("a", "b", "c"),
+                Lists.of(
+                        Lists.of("x", "y", "z")
+                ),
+                ProviderToolDelta.NO_BASE
+        );
+    }
+
+    @Test
+    public void testBaseNotCheaper() {
+        this.baseAndCheck(
+                Lists.of("a", "b", "c"),
+                Lists.of(
+                        Lists.of("a", "y", "z")
+                ),
+                ProviderToolDelta.NO_BASE
+        );
+    }
+
+    @Test
+    public void testBaseFewestDifferences() {
+        this.baseAndCheck(
+                Lists.of("a", "b", "c"),
+                Lists.of(
+                        Lists.of("a", "y", "z"),
+                        Lists.of("a", "b", "z"),
+                        Lists.of("x", "b", "z")
+                ),
+                1
+        );
+    }
+
+    @Test
+    public void testBaseFirstWhenTied() {
+        this.baseAndCheck(
+                Lists.of("a", "b", "c"),
+                Lists.of(
+                        Lists.of("x", "b", "c"),
+                        Lists.of("a", "y", "c")
+                ),
+                0
+        );
+    }
+
+    private void baseAndCheck(final List<Object> values,
+                              final List<List<Object>> previous,
+                              final int expected) {
+        this.checkEquals(expected, ProviderToolDelta.base(values, previous));
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolDelta> type() {
+        return ProviderToolDelta.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class ProviderToolFingerprintTest implements ClassTesting<ProviderToolFingerprint<?>> {
+
+    private final static Locale EN_AU = Locale.forLanguageTag("en-AU");
+    private final static Locale EN_NZ = Locale.forLanguageTag("en-NZ");
+    private final static Locale FR_FR = Locale.forLanguageTag("fr-FR");
+
+    @Test
+    public void testEqualsArrayContent() {
+        this.checkEquals(
+                ProviderToolFingerprint.with("value1", new String[]{"a", "b"}, 1),
+                ProviderToolFingerprint.with("value2", new String[]{"a", "b"}, 1)
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentKey() {
+        this.checkEquals(
+                false,
+                ProviderToolFingerprint.with("value", new String[]{"a", "b"}, 1)
+                        .equals(ProviderToolFingerprint.with("value", new String[]{"a", "c"}, 1))
+        );
+    }
+
+    @Test
+    public void testGroupAndSortByFirstLocale() {
+        final ProviderToolFingerprint<String> english = ProviderToolFingerprint.with("english", "en");
+        final ProviderToolFingerprint<String> french = ProviderToolFingerprint.with("french", "fr");
+
+        final Map<Locale, ProviderToolFingerprint<String>> localeToFingerprint = Maps.sorted((l, r) -> l.toLanguageTag().compareTo(r.toLanguageTag()));
+        localeToFingerprint.put(FR_FR, french);
+        localeToFingerprint.put(EN_NZ, ProviderToolFingerprint.with("english2", "en"));
+        localeToFingerprint.put(EN_AU, english);
+
+        final Map<ProviderToolFingerprint<String>, Set<Locale>> grouped = ProviderToolFingerprint.group(localeToFingerprint);
+        this.checkEquals(2, grouped.size(), () -> "grouped");
+        this.checkEquals(Set.of(EN_AU, EN_NZ), grouped.get(english), () -> "english locales");
+        this.checkEquals(Set.of(FR_FR), grouped.get(french), () -> "french locales");
+
+        final Map<Locale, ProviderToolFingerprint<String>> sorted = ProviderToolFingerprint.sortByFirstLocale(grouped);
+        this.checkEquals(
+                "{en-AU=english, fr-FR=french}",
+                sorted.entrySet()
+                        .stream()
+                        .map(e -> e.getKey().toLanguageTag() + "=" + e.getValue().value())
+                        .collect(Collectors.joining(", ", "{", "}"))
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Class<ProviderToolFingerprint<?>> type() {
+        return (Class<ProviderToolFingerprint<?>>) (Object) ProviderToolFingerprint.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.Printer;
+import walkingkooka.text.printer.Printers;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ProviderToolLocaleTableTest implements ClassTesting<ProviderToolLocaleTable> {
+
+    private final static Locale EN_AU = Locale.forLanguageTag("en-AU");
+    private final static Locale FR_FR = Locale.forLanguageTag("fr-FR");
+    private final static Locale SR_LATN_RS = Locale.forLanguageTag("sr-Latn-RS");
+
+    @Test
+    public void testLocalesSortedByTag() {
+        this.checkEquals(
+                Lists.of(EN_AU, FR_FR, SR_LATN_RS),
+                ProviderToolLocaleTable.with(Sets.of(SR_LATN_RS, FR_FR, EN_AU)).locales()
+        );
+    }
+
+    @Test
+    public void testId() {
+        final ProviderToolLocaleTable table = ProviderToolLocaleTable.with(Sets.of(SR_LATN_RS, FR_FR, EN_AU));
+        this.checkEquals(0, table.id(EN_AU), "en-AU");
+        this.checkEquals(2, table.id(SR_LATN_RS), "sr-Latn-RS");
+    }
+
+    @Test
+    public void testIdUnknownFails() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ProviderToolLocaleTable.with(Sets.of(EN_AU)).id(FR_FR)
+        );
+    }
+
+    @Test
+    public void testFirst() {
+        final ProcessingEnvironment compilation = compilation();
+        final ProviderToolLocaleTable first = ProviderToolLocaleTable.with(Sets.of(EN_AU));
+
+        assertSame(first, ProviderToolLocaleTable.first(compilation, first));
+        assertSame(first, ProviderToolLocaleTable.first(compilation, ProviderToolLocaleTable.with(Sets.of(FR_FR))));
+    }
+
+    @Test
+    public void testFirstDifferentCompilation() {
+        final ProviderToolLocaleTable table = ProviderToolLocaleTable.with(Sets.of(FR_FR));
+
+        ProviderToolLocaleTable.first(compilation(), ProviderToolLocaleTable.with(Sets.of(EN_AU)));
+        assertSame(table, ProviderToolLocaleTable.first(compilation(), table));
+    }
+
+    @Test
+    public void testClaimSourceOnce() {
+        final ProcessingEnvironment compilation = compilation();
+
+        this.checkEquals(true, ProviderToolLocaleTable.claimSource(compilation), "first");
+        this.checkEquals(false, ProviderToolLocaleTable.claimSource(compilation), "second");
+    }
+
+    @Test
+    public void testClaimSourceDifferentCompilation() {
+        ProviderToolLocaleTable.claimSource(compilation());
+        this.checkEquals(true, ProviderToolLocaleTable.claimSource(compilation()));
+    }
+
+    /**
+     * A {@link ProcessingEnvironment} that only supports identity, standing in for a single compilation.
+     */
+    private static ProcessingEnvironment compilation() {
+        return (ProcessingEnvironment) Proxy.newProxyInstance(
+                ProcessingEnvironment.class.getClassLoader(),
+                new Class<?>[]{ProcessingEnvironment.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+        );
+    }
+
+    @Test
+    public void testGenerateLocales() throws IOException {
+        final StringBuilder data = new StringBuilder();
+        final StringBuilder comments = new StringBuilder();
+
+        try (final Printer printer = Printers.stringBuilder(comments, LineEnding.NL)) {
+            ProviderToolLocaleTable.with(Sets.of(SR_LATN_RS, FR_FR, EN_AU))
+                    .generateLocales(
+                            Sets.of(SR_LATN_RS, EN_AU),
+                            StringDataInputDataOutput.output(data::append),
+                            LocaleAwareAnnotationProcessor.comments(printer),
+                            true
+                    );
+            printer.flush();
+        }
+
+        this.checkEquals("2,2,0", data.toString(), "data");
+        this.checkEquals("// locales=sr-Latn-RS, en-AU", comments.toString(), "comments");
+    }
+
+    @Test
+    public void testGenerateLocalesWithoutComments() throws IOException {
+        final StringBuilder data = new StringBuilder();
+        final StringBuilder comments = new StringBuilder();
+
+        try (final Printer printer = Printers.stringBuilder(comments, LineEnding.NL)) {
+            ProviderToolLocaleTable.with(Sets.of(SR_LATN_RS, FR_FR, EN_AU))
+                    .generateLocales(
+                            Sets.of(SR_LATN_RS, EN_AU),
+                            StringDataInputDataOutput.output(data::append),
+                            LocaleAwareAnnotationProcessor.comments(printer),
+                            false
+                    );
+            printer.flush();
+        }
+
+        this.checkEquals("2,2,0", data.toString(), "data");
+        this.checkEquals("", comments.toString(), "comments");
+    }
+
+    @Test
+    public void testSource() {
+        this.checkEquals(
+                "package test;\n" +
+                        "\n" +
+                        "public final class ProviderLocales {\n" +
+                        "\n" +
+                        "  public final static String[] TAGS = {\n" +
+                        "    \"en-AU\",\n" +
+                        "    \"sr-Latn-RS\",\n" +
+                        "  };\n" +
+                        "\n" +
+                        "  public final static String[] LANGUAGES = {\n" +
+                        "    \"en\",\n" +
+                        "    \"sr\",\n" +
+                        "  };\n" +
+                        "\n" +
+                        "  public final static String[] SCRIPTS = {\n" +
+                        "    \"\",\n" +
+                        "    \"Latn\",\n" +
+                        "  };\n" +
+                        "\n" +
+                        "  public final static String[] COUNTRIES = {\n" +
+                        "    \"AU\",\n" +
+                        "    \"RS\",\n" +
+                        "  };\n" +
+                        "\n" +
+                        "  public final static String[] VARIANTS = {\n" +
+                        "    \"\",\n" +
+                        "    \"\",\n" +
+                        "  };\n" +
+                        "\n" +
+                        "  private final static java.util.Locale[] LOCALES = new java.util.Locale[TAGS.length];\n" +
+                        "\n" +
+                        "  public static java.util.Locale locale(final int id) {\n" +
+                        "    java.util.Locale locale = LOCALES[id];\n" +
+                        "    if (null == locale) {\n" +
+                        "      final String script = SCRIPTS[id];\n" +
+                        "      locale = script.isEmpty() ?\n" +
+                        "          new java.util.Locale(LANGUAGES[id], COUNTRIES[id], VARIANTS[id]) :\n" +
+                        "          new java.util.Locale.Builder()\n" +
+                        "              .setLanguage(LANGUAGES[id])\n" +
+                        "              .setScript(script)\n" +
+                        "              .setRegion(COUNTRIES[id])\n" +
+                        "              .setVariant(VARIANTS[id])\n" +
+                        "              .build();\n" +
+                        "      LOCALES[id] = locale;\n" +
+                        "    }\n" +
+                        "    return locale;\n" +
+                        "  }\n" +
+                        "\n" +
+                        "  private ProviderLocales() {\n" +
+                        "    throw new UnsupportedOperationException();\n" +
+                        "  }\n" +
+                        "}\n",
+                ProviderToolLocaleTable.with(Sets.of(SR_LATN_RS, EN_AU)).source("test")
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolLocaleTable> type() {
+        return ProviderToolLocaleTable.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.Printer;
+import walkingkooka.text.printer.Printers;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Locale;
+
+public final class ProviderToolLocalesTest implements ClassTesting<ProviderToolLocales> {
+
+    @Test
+    public void testLanguage() {
+        this.checkEquals("en", ProviderToolLocales.language(Locale.forLanguageTag("en-AU")));
+    }
+
+    @Test
+    public void testLanguageOld() {
+        this.checkEquals("he", ProviderToolLocales.language(new Locale("iw", "IL")));
+    }
+
+    @Test
+    public void testGenerateComponents() throws IOException {
+        final StringBuilder data = new StringBuilder();
+        final StringBuilder comments = new StringBuilder();
+
+        try (final Printer printer = Printers.stringBuilder(comments, LineEnding.NL)) {
+            ProviderToolLocales.generateComponents(
+                    Sets.of(
+                            Locale.forLanguageTag("sr-Latn-RS"),
+                            new Locale("ja", "JP", "JP")
+                    ),
+                    StringDataInputDataOutput.output(data::append),
+                    LocaleAwareAnnotationProcessor.comments(printer),
+                    true
+            );
+            printer.flush();
+        }
+
+        final DataInput input = StringDataInputDataOutput.input(data.toString());
+        this.checkEquals(2, input.readInt(), "count");
+
+        this.checkEquals("sr", input.readUTF(), "language");
+        this.checkEquals("Latn", input.readUTF(), "script");
+        this.checkEquals("RS", input.readUTF(), "country");
+        this.checkEquals("", input.readUTF(), "variant");
+
+        this.checkEquals("ja", input.readUTF(), "language");
+        this.checkEquals("", input.readUTF(), "script");
+        this.checkEquals("JP", input.readUTF(), "country");
+        this.checkEquals("JP", input.readUTF(), "variant");
+
+        this.checkEquals("// locales=sr-Latn-RS, ja-JP-u-ca-japanese-x-lvariant-JP", comments.toString(), "comments");
+    }
+
+    @Test
+    public void testGenerateComponentsWithoutComments() throws IOException {
+        final StringBuilder data = new StringBuilder();
+        final StringBuilder comments = new StringBuilder();
+
+        try (final Printer printer = Printers.stringBuilder(comments, LineEnding.NL)) {
+            ProviderToolLocales.generateComponents(
+                    Sets.of(Locale.forLanguageTag("sr-Latn-RS")),
+                    StringDataInputDataOutput.output(data::append),
+                    LocaleAwareAnnotationProcessor.comments(printer),
+                    false
+            );
+            printer.flush();
+        }
+
+        this.checkEquals(1, StringDataInputDataOutput.input(data.toString()).readInt(), "count");
+        this.checkEquals("", comments.toString(), "comments");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolLocales> type() {
+        return ProviderToolLocales.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
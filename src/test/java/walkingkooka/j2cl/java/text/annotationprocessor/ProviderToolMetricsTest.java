@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+
+public final class ProviderToolMetricsTest implements ClassTesting<ProviderToolMetrics> {
+
+    @Test
+    public void testNoneIgnores() {
+        final ProviderToolMetrics metrics = ProviderToolMetrics.NONE;
+        metrics.harvest(1000000);
+        metrics.records(1);
+
+        this.checkEquals(
+                " harvest=0ms group=0ms emit=0ms locales=0 records=0 dedup=0.00 data=0 comments=0",
+                metrics.toString()
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.checkEquals(
+                "DecimalFormatProvider harvest=3ms group=1ms emit=4ms locales=7 records=2 dedup=3.50 data=25 comments=20",
+                this.metrics().toString()
+        );
+    }
+
+    @Test
+    public void testJson() {
+        this.checkEquals(
+                "{\"provider\": \"DecimalFormatProvider\", \"harvestMillis\": 3, \"groupMillis\": 1, \"emitMillis\": 4, \"locales\": 7, \"records\": 2, \"dedup\": 3.50, \"dataChars\": 25, \"commentChars\": 20}",
+                this.metrics().json()
+        );
+    }
+
+    @Test
+    public void testDedupNoRecords() {
+        this.checkEquals(0.0, ProviderToolMetrics.with("DecimalFormatProvider").dedup());
+    }
+
+    @Test
+    public void testDataOutput() throws IOException {
+        final StringBuilder data = new StringBuilder();
+        final ProviderToolMetrics metrics = ProviderToolMetrics.with("DecimalFormatProvider");
+        final ProviderToolMetricsDataOutput output = new ProviderToolMetricsDataOutput(
+                StringDataInputDataOutput.output(data::append),
+                text -> metrics.data(text.length())
+        );
+        output.writeInt(12);
+        output.writeUTF("abc");
+
+        final ProviderToolMetrics expected = ProviderToolMetrics.with("DecimalFormatProvider");
+        expected.data(data.length());
+
+        this.checkEquals(expected.toString(), metrics.toString());
+    }
+
+    /**
+     * Metrics accumulated over two shards.
+     */
+    private ProviderToolMetrics metrics() {
+        final ProviderToolMetrics metrics = ProviderToolMetrics.with("DecimalFormatProvider");
+        metrics.locales(7);
+
+        metrics.harvest(1000000);
+        metrics.group(500000);
+        metrics.emit(2000000);
+        metrics.records(1);
+
+        metrics.harvest(2000000);
+        metrics.group(500000);
+        metrics.emit(2000000);
+        metrics.records(1);
+
+        metrics.data(25);
+        metrics.comments(20);
+        return metrics;
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolMetrics> type() {
+        return ProviderToolMetrics.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
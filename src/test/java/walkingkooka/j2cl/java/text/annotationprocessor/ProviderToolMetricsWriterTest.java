@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ProviderToolMetricsWriterTest implements ClassTesting<ProviderToolMetricsWriter> {
+
+    @Test
+    public void testWrite() throws IOException {
+        final StringWriter target = new StringWriter();
+        final AtomicInteger chars = new AtomicInteger();
+
+        try (final Writer writer = new ProviderToolMetricsWriter(target, chars::addAndGet)) {
+            writer.write('a');
+            writer.write("bcd");
+            writer.write(new char[]{'e', 'f'});
+            writer.append("gh");
+        }
+
+        this.checkEquals("abcdefgh", target.toString(), "written");
+        this.checkEquals(8, chars.get(), "chars");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolMetricsWriter> type() {
+        return ProviderToolMetricsWriter.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
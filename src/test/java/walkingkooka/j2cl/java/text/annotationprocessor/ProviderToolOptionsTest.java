@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ProviderToolOptionsTest implements ClassTesting<ProviderToolOptions> {
+
+    @Test
+    public void testWithIgnoresUnknown() {
+        final Map<String, String> options = Maps.sorted();
+        options.put("unknown", "123");
+
+        this.checkEquals(ProviderToolOptions.DEFAULT, ProviderToolOptions.with(options));
+    }
+
+    @Test
+    public void testWith() {
+        final Map<String, String> options = Maps.sorted();
+        options.put(ProviderToolOptions.PARALLEL, "true");
+
+        this.checkEquals(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.PARALLEL, "true"),
+                ProviderToolOptions.with(options)
+        );
+    }
+
+    @Test
+    public void testWithChunksDataClassFails() {
+        this.withConflictFails(ProviderToolOptions.CHUNKS, ProviderToolOptions.DATA_CLASS);
+    }
+
+    @Test
+    public void testWithChunksShardFails() {
+        this.withConflictFails(ProviderToolOptions.CHUNKS, ProviderToolOptions.SHARD);
+    }
+
+    @Test
+    public void testWithDataClassShardFails() {
+        this.withConflictFails(ProviderToolOptions.DATA_CLASS, ProviderToolOptions.SHARD);
+    }
+
+    @Test
+    public void testWithTokensGlueFails() {
+        this.withConflictFails(ProviderToolOptions.DATE_FORMAT_PROVIDER_TOKENS, ProviderToolOptions.DATE_FORMAT_PROVIDER_GLUE);
+    }
+
+    @Test
+    public void testWithLocaleComponentsLocaleTableFails() {
+        this.withConflictFails(ProviderToolOptions.LOCALE_COMPONENTS, ProviderToolOptions.LOCALE_TABLE);
+    }
+
+    @Test
+    public void testWithStreamSideClassesWithoutChunksOrShardFails() {
+        final Map<String, String> options = Maps.sorted();
+        options.put(ProviderToolOptions.STREAM_SIDE_CLASSES, "true");
+
+        this.checkEquals(
+                "Option " + ProviderToolOptions.STREAM_SIDE_CLASSES + " requires " + ProviderToolOptions.CHUNKS + " or " + ProviderToolOptions.SHARD,
+                assertThrows(IllegalArgumentException.class, () -> ProviderToolOptions.with(options))
+                        .getMessage()
+        );
+    }
+
+    @Test
+    public void testWithStreamSideClassesChunks() {
+        this.withStreamSideClassesAndCheck(ProviderToolOptions.CHUNKS);
+    }
+
+    @Test
+    public void testWithStreamSideClassesShard() {
+        this.withStreamSideClassesAndCheck(ProviderToolOptions.SHARD);
+    }
+
+    private void withStreamSideClassesAndCheck(final String sideClasses) {
+        final Map<String, String> options = Maps.sorted();
+        options.put(ProviderToolOptions.STREAM_SIDE_CLASSES, "true");
+        options.put(sideClasses, "true");
+
+        this.checkEquals(
+                true,
+                ProviderToolOptions.with(options).streamSideClasses()
+        );
+    }
+
+    @Test
+    public void testWithConflictFalse() {
+        final Map<String, String> options = Maps.sorted();
+        options.put(ProviderToolOptions.LOCALE_COMPONENTS, "true");
+        options.put(ProviderToolOptions.LOCALE_TABLE, "false");
+
+        this.checkEquals(
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.LOCALE_COMPONENTS, "true")
+                        .set(ProviderToolOptions.LOCALE_TABLE, "false"),
+                ProviderToolOptions.with(options)
+        );
+    }
+
+    private void withConflictFails(final String name,
+                                   final String other) {
+        final Map<String, String> options = Maps.sorted();
+        options.put(name, "true");
+        options.put(other, "true");
+
+        this.checkEquals(
+                "Options " + name + " and " + other + " cannot be combined",
+                assertThrows(IllegalArgumentException.class, () -> ProviderToolOptions.with(options))
+                        .getMessage()
+        );
+    }
+
+    @Test
+    public void testCacheKeyIgnoresNotOutput() {
+        final ProviderToolOptions options = ProviderToolOptions.DEFAULT.set(ProviderToolOptions.INDEX, "true");
+
+        this.checkEquals(
+                options.cacheKey(),
+                options.set(ProviderToolOptions.CACHE, "/cache")
+                        .set(ProviderToolOptions.METRICS, "true")
+                        .set(ProviderToolOptions.METRICS_DIRECTORY, "/metrics")
+                        .set(ProviderToolOptions.PARALLEL, "true")
+                        .set(ProviderToolOptions.STREAM_SIDE_CLASSES, "true")
+                        .cacheKey()
+        );
+    }
+
+    @Test
+    public void testCacheKeyDifferentOutput() {
+        this.checkEquals(
+                false,
+                ProviderToolOptions.DEFAULT.cacheKey()
+                        .equals(ProviderToolOptions.DEFAULT.set(ProviderToolOptions.INDEX, "true").cacheKey())
+        );
+    }
+
+    @Test
+    public void testSetUnknownFails() {
+        assertThrows(IllegalArgumentException.class, () -> ProviderToolOptions.DEFAULT.set("unknown", "123"));
+    }
+
+    @Test
+    public void testParallelDefault() {
+        this.checkEquals(false, ProviderToolOptions.DEFAULT.parallel());
+    }
+
+    @Test
+    public void testParallel() {
+        this.checkEquals(true, ProviderToolOptions.DEFAULT.set(ProviderToolOptions.PARALLEL, "true").parallel());
+    }
+
+    @Test
+    public void testParallelInvalidFails() {
+        assertThrows(IllegalArgumentException.class, () -> ProviderToolOptions.DEFAULT.set(ProviderToolOptions.PARALLEL, "yes").parallel());
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolOptions> type() {
+        return ProviderToolOptions.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Set;
+
+public final class ProviderToolPerfectHashTest implements ClassTesting<ProviderToolPerfectHash> {
+
+    @Test
+    public void testEmpty() {
+        final ProviderToolPerfectHash hash = ProviderToolPerfectHash.with(Sets.empty());
+        this.checkEquals(0, hash.displacements().length, "buckets");
+        this.checkEquals(0, hash.slots().size(), "slots");
+        this.checkEquals(ProviderToolPerfectHash.NO_SLOT, hash.slot("en"), "slot");
+    }
+
+    @Test
+    public void testOne() {
+        this.withAndCheck(Sets.of("en"));
+    }
+
+    @Test
+    public void testSeveral() {
+        this.withAndCheck(Sets.of("de", "en", "en-AU", "fr-FR", "zh-Hans-CN"));
+    }
+
+    @Test
+    public void testAllLanguageTags() {
+        this.withAndCheck(WalkingkookaLanguageTag.all("*"));
+    }
+
+    private void withAndCheck(final Set<String> keys) {
+        final ProviderToolPerfectHash hash = ProviderToolPerfectHash.with(keys);
+        this.checkEquals(keys.size(), hash.slots().size(), "slots");
+
+        for (final String key : keys) {
+            this.checkEquals(key, hash.slots().get(hash.slot(key)), () -> "slot of " + key);
+        }
+    }
+
+    @Test
+    public void testHashSeed() {
+        this.checkEquals(
+                false,
+                ProviderToolPerfectHash.hash(0, "en") == ProviderToolPerfectHash.hash(1, "en")
+        );
+    }
+
+    @Test
+    public void testIndexNegative() {
+        this.checkEquals(
+                1,
+                ProviderToolPerfectHash.index(Integer.MIN_VALUE + 7, 3)
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolPerfectHash> type() {
+        return ProviderToolPerfectHash.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+import walkingkooka.text.printer.Printer;
+import walkingkooka.text.printer.Printers;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public final class ProviderToolPhasesTest implements ClassTesting<ProviderToolPhases> {
+
+    @Test
+    public void testDataNotRecording() {
+        final DataOutput data = StringDataInputDataOutput.output(s -> {
+        });
+
+        this.checkEquals(
+                true,
+                data == ProviderToolPhases.with("DecimalFormatSymbolsProvider", 1, ProviderToolMetrics.NONE)
+                        .data(data)
+        );
+    }
+
+    @Test
+    public void testMetricsRecords() {
+        final ProviderToolMetrics metrics = ProviderToolMetrics.with("DecimalFormatSymbolsProvider");
+        final ProviderToolPhases phases = ProviderToolPhases.with("DecimalFormatSymbolsProvider", 5, metrics);
+        phases.harvest();
+        phases.group();
+        phases.serialize(3);
+        phases.serialized();
+
+        this.checkEquals(
+                true,
+                metrics.toString().contains(" records=3 "),
+                metrics::toString
+        );
+    }
+
+    @Test
+    public void testEvents() throws IOException {
+        final StringBuilder data = new StringBuilder();
+        final List<RecordedEvent> events;
+
+        final Path file = Files.createTempFile(ProviderToolPhasesTest.class.getSimpleName(), ".jfr");
+        try {
+            try (final Recording recording = new Recording()) {
+                recording.enable(ProviderToolPhaseEvent.class);
+                recording.start();
+
+                try (final Printer printer = Printers.sink(LineEnding.NONE)) {
+                    DecimalFormatSymbolsProviderTool.generate(
+                            "en-AU,fr-FR",
+                            ProviderToolSnapshot.with(Sets.of(Locale.forLanguageTag("en-AU"), Locale.forLanguageTag("fr-FR"))),
+                            ProviderToolOptions.DEFAULT,
+                            StringDataInputDataOutput.output(data::append),
+                            LocaleAwareAnnotationProcessor.comments(printer)
+                    );
+                    printer.flush();
+                }
+
+                recording.stop();
+                recording.dump(file);
+            }
+
+            events = RecordingFile.readAllEvents(file)
+                    .stream()
+                    .filter(e -> "DecimalFormatSymbolsProvider".equals(e.getString("provider")))
+                    .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        this.checkEquals(
+                Lists.of(ProviderToolPhaseEvent.HARVEST, ProviderToolPhaseEvent.GROUP, ProviderToolPhaseEvent.SERIALIZE),
+                events.stream()
+                        .map(e -> e.getString("phase"))
+                        .collect(Collectors.toList()),
+                "phases"
+        );
+
+        final RecordedEvent serialize = events.get(2);
+        this.checkEquals(2, serialize.getInt("locales"), "locales");
+        this.checkEquals(2, serialize.getInt("records"), "records");
+        this.checkEquals((long) data.length(), serialize.getLong("dataChars"), "dataChars");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolPhases> type() {
+        return ProviderToolPhases.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
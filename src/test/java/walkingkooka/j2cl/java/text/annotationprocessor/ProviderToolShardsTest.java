@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public final class ProviderToolShardsTest implements ClassTesting<ProviderToolShards> {
+
+    @Test
+    public void testShard() {
+        this.checkEquals("de", ProviderToolShards.shard(Locale.forLanguageTag("de-AT")));
+    }
+
+    @Test
+    public void testShardRoot() {
+        this.checkEquals("und", ProviderToolShards.shard(Locale.ROOT));
+    }
+
+    @Test
+    public void testGroup() {
+        final Locale deAT = Locale.forLanguageTag("de-AT");
+        final Locale deDE = Locale.forLanguageTag("de-DE");
+        final Locale enAU = Locale.forLanguageTag("en-AU");
+
+        final Map<String, Set<Locale>> shards = ProviderToolShards.group(Sets.of(enAU, deDE, deAT));
+        this.checkEquals("[de, en]", shards.keySet().toString());
+        this.checkEquals(Sets.of(deAT, deDE), shards.get("de"));
+        this.checkEquals(Sets.of(enAU), shards.get("en"));
+    }
+
+    @Test
+    public void testShardSource() {
+        this.checkEquals(
+                "package walkingkooka.j2cl.java.text.generated;\n" +
+                        "\n" +
+                        "public final class DecimalFormatProvider_de {\n" +
+                        "\n" +
+                        "// locales=de-DE\n" +
+                        "  public final static String DATA = preventInlining(\"1,1,de-DE\");\n" +
+                        "\n" +
+                        "  private static String preventInlining(final String string){\n" +
+                        "    return string;\n" +
+                        "  }\n" +
+                        "}\n",
+                ProviderToolShards.shardSource(
+                        "DecimalFormatProvider",
+                        "de",
+                        "// locales=de-DE\n",
+                        "1,1,de-DE"
+                )
+        );
+    }
+
+    @Test
+    public void testShardSourceChunks() {
+        this.checkEquals(
+                "package walkingkooka.j2cl.java.text.generated;\n" +
+                        "\n" +
+                        "public final class DecimalFormatProvider_de {\n" +
+                        "\n" +
+                        "// locales=de-DE\n" +
+                        "  public final static String DATA = preventInlining(String.join(\"\",\n" +
+                        "      \"1,1,\",\n" +
+                        "      \"de-DE\"));\n" +
+                        "\n" +
+                        "  private static String preventInlining(final String string){\n" +
+                        "    return string;\n" +
+                        "  }\n" +
+                        "}\n",
+                ProviderToolShards.shardSource(
+                        "DecimalFormatProvider",
+                        "de",
+                        "// locales=de-DE\n",
+                        Lists.of("1,1,", "de-DE")
+                )
+        );
+    }
+
+    @Test
+    public void testShardSourceStartAndEnd() {
+        this.checkEquals(
+                "package walkingkooka.j2cl.java.text.generated;\n" +
+                        "\n" +
+                        "public final class DecimalFormatProvider_de {\n" +
+                        "\n" +
+                        "  public final static String DATA = preventInlining(String.join(\"\",\n" +
+                        "      \"1,1,\",\n" +
+                        "      \"de-DE\"));\n" +
+                        "\n" +
+                        "// locales=de-DE\n" +
+                        "\n" +
+                        "  private static String preventInlining(final String string){\n" +
+                        "    return string;\n" +
+                        "  }\n" +
+                        "}\n",
+                ProviderToolShards.shardSourceStart("DecimalFormatProvider", "de") +
+                        "\"1,1,\"," + ProviderToolShards.SHARD_SEPARATOR + "\"de-DE\"" +
+                        ProviderToolShards.shardSourceEnd("// locales=de-DE\n")
+        );
+    }
+
+    @Test
+    public void testDispatchSource() {
+        this.checkEquals(
+                "package walkingkooka.j2cl.java.text.generated;\n" +
+                        "\n" +
+                        "public final class DecimalFormatProviderShards {\n" +
+                        "\n" +
+                        "  public static String data(final String language) {\n" +
+                        "    final String data;\n" +
+                        "\n" +
+                        "    switch (language) {\n" +
+                        "      case \"de\":\n" +
+                        "        data = DecimalFormatProvider_de.DATA;\n" +
+                        "        break;\n" +
+                        "      case \"en\":\n" +
+                        "        data = DecimalFormatProvider_en.DATA;\n" +
+                        "        break;\n" +
+                        "      default:\n" +
+                        "        data = null;\n" +
+                        "        break;\n" +
+                        "    }\n" +
+                        "\n" +
+                        "    return data;\n" +
+                        "  }\n" +
+                        "}\n",
+                ProviderToolShards.dispatchSource(
+                        "DecimalFormatProvider",
+                        sortedSet("de", "en")
+                )
+        );
+    }
+
+    private static Set<String> sortedSet(final String... values) {
+        final Set<String> set = Sets.sorted();
+        for (final String value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolShards> type() {
+        return ProviderToolShards.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
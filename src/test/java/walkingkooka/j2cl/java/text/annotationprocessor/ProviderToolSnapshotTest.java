@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.text.annotationprocessor;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import java.lang.reflect.Proxy;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class ProviderToolSnapshotTest implements ClassTesting<ProviderToolSnapshot> {
+
+    @Test
+    public void testSharedSameInstance() {
+        final ProcessingEnvironment compilation = compilation();
+
+        assertSame(
+                ProviderToolSnapshot.shared(compilation, Sets.of("en-AU", "fr-FR")),
+                ProviderToolSnapshot.shared(compilation, Sets.of("fr-FR", "en-AU"))
+        );
+    }
+
+    @Test
+    public void testSharedDifferentCompilation() {
+        assertNotSame(
+                ProviderToolSnapshot.shared(compilation(), Sets.of("en-AU")),
+                ProviderToolSnapshot.shared(compilation(), Sets.of("en-AU"))
+        );
+    }
+
+    @Test
+    public void testDecimalFormatsClones() {
+        final ProviderToolSnapshot snapshot = ProviderToolSnapshot.shared(compilation(), Sets.of("en-AU"));
+        final Locale locale = Locale.forLanguageTag("en-AU");
+
+        final List<DecimalFormat> formats = snapshot.decimalFormats(locale);
+        final List<DecimalFormat> formats2 = snapshot.decimalFormats(locale);
+
+        this.checkEquals(formats, formats2);
+        assertNotSame(formats.get(0), formats2.get(0));
+    }
+
+    @Test
+    public void testDateFormatsClones() {
+        final ProviderToolSnapshot snapshot = ProviderToolSnapshot.shared(compilation(), Sets.of("en-AU"));
+        final Locale locale = Locale.forLanguageTag("en-AU");
+
+        final SimpleDateFormat format = snapshot.dateFormats(locale).get(0);
+        format.applyPattern("'changed'");
+
+        assertNotEquals(
+                format.toPattern(),
+                snapshot.dateFormats(locale).get(0).toPattern()
+        );
+    }
+
+    @Test
+    public void testDateFormatsCount() {
+        this.checkEquals(
+                4 + 4 * 4 + 4,
+                ProviderToolSnapshot.shared(compilation(), Sets.of("en-AU"))
+                        .dateFormats(Locale.forLanguageTag("en-AU"))
+                        .size()
+        );
+    }
+
+    @Test
+    public void testHarvestParallel() {
+        final ProviderToolSnapshot snapshot = ProviderToolSnapshot.shared(compilation(), Sets.of("en-AU", "en-NZ", "fr-FR"));
+
+        final Map<Locale, String> sequential = snapshot.harvest(Locale::toLanguageTag, false);
+        this.checkEquals(3, sequential.size(), () -> "" + sequential);
+        this.checkEquals(sequential, snapshot.harvest(Locale::toLanguageTag, true));
+    }
+
+    @Test
+    public void testSubsetShares() {
+        final ProviderToolSnapshot snapshot = ProviderToolSnapshot.shared(compilation(), Sets.of("en-AU", "fr-FR"));
+        final Locale locale = Locale.forLanguageTag("en-AU");
+        final ProviderToolSnapshot subset = snapshot.subset(Sets.of(locale));
+
+        this.checkEquals(Sets.of(locale), subset.locales());
+        this.checkEquals(
+                snapshot.decimalFormats(locale),
+                subset.decimalFormats(locale)
+        );
+        assertSame(
+                snapshot.localeTable(),
+                subset.localeTable()
+        );
+    }
+
+    /**
+     * A {@link ProcessingEnvironment} that only supports identity, standing in for a single compilation.
+     */
+    private static ProcessingEnvironment compilation() {
+        return (ProcessingEnvironment) Proxy.newProxyInstance(
+                ProcessingEnvironment.class.getClassLoader(),
+                new Class<?>[]{ProcessingEnvironment.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ProviderToolSnapshot> type() {
+        return ProviderToolSnapshot.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -1,10 +1,12 @@
 package walkingkooka.j2cl.java.text.annotationprocessor;
 
+import org.junit.jupiter.api.Test;
 import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.j2cl.java.io.string.StringDataInputDataOutput;
 import walkingkooka.j2cl.locale.WalkingkookaLanguageTag;
 import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessor;
+import walkingkooka.j2cl.locale.annotationprocessor.LocaleAwareAnnotationProcessorTool;
 import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.text.CharSequences;
@@ -16,6 +18,7 @@ import walkingkooka.text.printer.Printers;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -26,6 +29,251 @@ public abstract class ProviderToolTestCase<T> implements ClassTesting<T> {
         super();
     }
 
+    @Test
+    public final void testCommentsDisabled() throws IOException {
+        final String filter = "en-AU,en-NZ,fr-FR";
+
+        this.checkEquals(
+                "\n\n" + this.generateData(filter),
+                this.generate(
+                        filter,
+                        ProviderToolOptions.DEFAULT.set(ProviderToolOptions.COMMENTS, "false")
+                )
+        );
+    }
+
+    @Test
+    public final void testIndex() throws IOException {
+        this.indexAndCheck("*", ProviderToolOptions.DEFAULT);
+    }
+
+    @Test
+    public final void testIndexCompact() throws IOException {
+        this.indexAndCheck("*", ProviderToolOptions.DEFAULT.set(ProviderToolOptions.ENCODING, "compact"));
+    }
+
+    @Test
+    public final void testIndexLocaleTable() throws IOException {
+        this.indexAndCheck("*", ProviderToolOptions.DEFAULT.set(ProviderToolOptions.LOCALE_TABLE, "true"));
+    }
+
+    @Test
+    public final void testIndexLocaleComponents() throws IOException {
+        this.indexAndCheck("*", ProviderToolOptions.DEFAULT.set(ProviderToolOptions.LOCALE_COMPONENTS, "true"));
+    }
+
+    @Test
+    public final void testIndexLocaleComponentsCompact() throws IOException {
+        this.indexAndCheck(
+                "*",
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.LOCALE_COMPONENTS, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public final void testIndexHash() throws IOException {
+        this.indexAndCheck("*", ProviderToolOptions.DEFAULT.set(ProviderToolOptions.HASH, "true"));
+    }
+
+    @Test
+    public final void testIndexHashCompact() throws IOException {
+        this.indexAndCheck(
+                "*",
+                ProviderToolOptions.DEFAULT.set(ProviderToolOptions.HASH, "true")
+                        .set(ProviderToolOptions.ENCODING, "compact")
+        );
+    }
+
+    @Test
+    public final void testIndexHashEmpty() throws IOException {
+        this.indexAndCheck("", ProviderToolOptions.DEFAULT.set(ProviderToolOptions.HASH, "true"));
+    }
+
+    @Test
+    public final void testCompactLiteralSmaller() throws IOException {
+        final int compact = this.dataLiteral("*", ProviderToolOptions.DEFAULT.set(ProviderToolOptions.ENCODING, "compact"))
+                .length();
+        final int text = this.dataLiteral("*", ProviderToolOptions.DEFAULT)
+                .length();
+
+        this.checkEquals(
+                true,
+                compact < text,
+                () -> "compact " + compact + " should be smaller than text " + text
+        );
+    }
+
+    /**
+     * Streams the chunks source as the processor does with <code>streamSideClasses</code>, which must be the same as
+     * the source built from the buffered data.
+     */
+    @Test
+    public final void testStreamedChunksSameAsBuffered() throws IOException {
+        final String provider = "TestProvider";
+        final StringBuilder data = new StringBuilder();
+        this.generateData("*", StringDataInputDataOutput.output(data::append));
+
+        final StringWriter writer = new StringWriter();
+        final ProviderToolChunksWriter chunks = ProviderToolChunksWriter.with(
+                writer,
+                ProviderToolChunks.MAX_BYTES,
+                ",\n    "
+        );
+        writer.write(ProviderToolChunks.sourceStart(provider));
+        writer.write("    ");
+        this.generateData("*", StringDataInputDataOutput.output(chunks::append));
+        chunks.end();
+        writer.write(",\n");
+        writer.write(ProviderToolChunks.sourceEnd(provider));
+
+        this.checkEquals(
+                ProviderToolChunks.source(
+                        provider,
+                        ProviderToolChunks.split(data, ProviderToolChunks.MAX_BYTES)
+                ),
+                writer.toString()
+        );
+    }
+
+    private void generateData(final String filter,
+                              final DataOutput data) throws IOException {
+        try (final Printer printer = Printers.sink(LineEnding.NONE)) {
+            this.generate0(WalkingkookaLanguageTag.all(filter),
+                    ProviderToolOptions.DEFAULT,
+                    ProviderToolIndex.NONE,
+                    data,
+                    LocaleAwareAnnotationProcessor.comments(printer));
+            printer.flush();
+        }
+    }
+
+    /**
+     * Returns the escaped literal that replaces <code>$DATA</code>, where the compact encoding is written as a single UTF
+     * string of the text encoding, as the processor does.
+     */
+    private String dataLiteral(final String filter,
+                               final ProviderToolOptions options) throws IOException {
+        final ProviderToolEncoding encoding = options.encoding();
+        final StringBuilder encoded = new StringBuilder();
+
+        try (final Printer printer = Printers.sink(LineEnding.NONE)) {
+            this.generate0(WalkingkookaLanguageTag.all(filter),
+                    options,
+                    ProviderToolIndex.NONE,
+                    encoding.output(encoded),
+                    LocaleAwareAnnotationProcessor.comments(printer));
+            printer.flush();
+        }
+
+        final StringBuilder data;
+        if (ProviderToolEncoding.TEXT == encoding) {
+            data = encoded;
+        } else {
+            data = new StringBuilder();
+            StringDataInputDataOutput.output(data::append)
+                    .writeUTF(encoded.toString());
+        }
+
+        return CharSequences.quoteAndEscape(data)
+                .toString();
+    }
+
+    /**
+     * Generates the filtered locales with an index, and verifies every language tag in the index refers to a record
+     * holding that locale. When hashed every language tag must also be found in its own slot.
+     */
+    private void indexAndCheck(final String filter,
+                               final ProviderToolOptions options) throws IOException {
+        final ProviderToolEncoding encoding = options.encoding();
+        final boolean hash = options.hash();
+        final Set<String> languageTags = filter.isEmpty() ?
+                Sets.empty() :
+                WalkingkookaLanguageTag.all(filter);
+        final List<Locale> table = ProviderToolLocaleTable.with(
+                LocaleAwareAnnotationProcessorTool.toLocales(languageTags)
+        ).locales();
+        final StringBuilder body = new StringBuilder();
+        final StringBuilder header = new StringBuilder();
+        final ProviderToolIndex index = ProviderToolIndex.with(encoding, body, hash);
+
+        try (final Printer printer = Printers.sink(LineEnding.NONE)) {
+            final IndentingPrinter comments = LocaleAwareAnnotationProcessor.comments(printer);
+            this.generate0(languageTags,
+                    options,
+                    index,
+                    encoding.output(body),
+                    comments);
+            index.generate(encoding.output(header), comments);
+            printer.flush();
+        }
+
+        final DataInput data = encoding.input(header.toString());
+
+        final List<Integer> offsets = Lists.array();
+        final int recordCount = data.readInt();
+        for (int i = 0; i < recordCount; i++) {
+            offsets.add(data.readInt());
+        }
+
+        final int[] displacements;
+        if (hash) {
+            displacements = new int[data.readInt()];
+            for (int i = 0; i < displacements.length; i++) {
+                displacements[i] = data.readInt();
+            }
+        } else {
+            displacements = null;
+        }
+
+        final List<String> tags = Lists.array();
+        final List<Integer> records = Lists.array();
+        final int tagCount = data.readInt();
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(data.readUTF());
+            records.add(data.readInt());
+        }
+
+        final String readBody = data.readUTF();
+        this.checkEquals(body.toString(), readBody, "body");
+
+        if (hash) {
+            this.checkEquals(tagCount, displacements.length, "buckets");
+
+            for (int i = 0; i < tagCount; i++) {
+                final String tag = tags.get(i);
+                final int displacement = displacements[ProviderToolPerfectHash.index(ProviderToolPerfectHash.hash(0, tag), displacements.length)];
+                this.checkEquals(
+                        i,
+                        ProviderToolPerfectHash.index(ProviderToolPerfectHash.hash(displacement, tag), tagCount),
+                        () -> "slot of " + tag
+                );
+            }
+        } else {
+            final List<String> sorted = Lists.array();
+            sorted.addAll(tags);
+            sorted.sort(String::compareTo);
+            this.checkEquals(sorted, tags, "tags sorted");
+        }
+
+        for (int i = 0; i < tagCount; i++) {
+            final String tag = tags.get(i);
+            final DataInput record = encoding.input(readBody.substring(offsets.get(records.get(i))));
+            final Set<Locale> locales = options.localeTable() ?
+                    this.readLocales(record, table) :
+                    options.localeComponents() ?
+                            this.readLocaleComponents(record) :
+                            this.readLocales(record);
+
+            this.checkEquals(
+                    true,
+                    locales.stream()
+                            .anyMatch(l -> l.toLanguageTag().equals(tag)),
+                    () -> tag + " missing from record locales " + locales
+            );
+        }
+    }
+
     final void generateAndCheck(final String filter,
                                 final String expected) throws IOException {
         this.checkEquals(expected,
@@ -34,12 +282,19 @@ public abstract class ProviderToolTestCase<T> implements ClassTesting<T> {
     }
 
     final String generate(final String filter) throws IOException {
+        return this.generate(filter, ProviderToolOptions.DEFAULT);
+    }
+
+    final String generate(final String filter,
+                          final ProviderToolOptions options) throws IOException {
         final StringBuilder comments = new StringBuilder();
         final StringBuilder data = new StringBuilder();
         final LineEnding eol = LineEnding.NL;
 
         try (final Printer printer = Printers.stringBuilder(comments, eol)) {
             this.generate0(filter.isEmpty() ? Sets.empty() : WalkingkookaLanguageTag.all(filter),
+                    options,
+                    ProviderToolIndex.NONE,
                     StringDataInputDataOutput.output(data::append),
                     LocaleAwareAnnotationProcessor.comments(printer));
             printer.print(eol);
@@ -51,11 +306,18 @@ public abstract class ProviderToolTestCase<T> implements ClassTesting<T> {
     }
 
     final String generateData(final String filter) throws IOException {
+        return this.generateData(filter, ProviderToolOptions.DEFAULT);
+    }
+
+    final String generateData(final String filter,
+                              final ProviderToolOptions options) throws IOException {
         final StringBuilder data = new StringBuilder();
         final LineEnding eol = LineEnding.NL;
 
         try (final Printer printer = Printers.sink(LineEnding.NONE)) {
             this.generate0(filter.isEmpty() ? Sets.empty() : WalkingkookaLanguageTag.all(filter),
+                    options,
+                    ProviderToolIndex.NONE,
                     StringDataInputDataOutput.output(data::append),
                     LocaleAwareAnnotationProcessor.comments(printer));
             printer.print(eol);
@@ -66,6 +328,26 @@ public abstract class ProviderToolTestCase<T> implements ClassTesting<T> {
         }
     }
 
+    /**
+     * Generates the data using the encoding selected by the options, returning a {@link DataInput} that reads it.
+     */
+    final DataInput generateDataInput(final String filter,
+                                      final ProviderToolOptions options) throws IOException {
+        final ProviderToolEncoding encoding = options.encoding();
+        final StringBuilder data = new StringBuilder();
+
+        try (final Printer printer = Printers.sink(LineEnding.NONE)) {
+            this.generate0(filter.isEmpty() ? Sets.empty() : WalkingkookaLanguageTag.all(filter),
+                    options,
+                    ProviderToolIndex.NONE,
+                    encoding.output(data),
+                    LocaleAwareAnnotationProcessor.comments(printer));
+            printer.flush();
+        }
+
+        return encoding.input(data.toString());
+    }
+
     final Set<Locale> readLocales(final DataInput data) throws IOException {
         final Set<Locale> locales = Sets.ordered();
         final int count = data.readInt();
@@ -77,6 +359,51 @@ public abstract class ProviderToolTestCase<T> implements ClassTesting<T> {
         return locales;
     }
 
+    /**
+     * Reads locales written as ids of the given {@link ProviderToolLocaleTable#locales()}.
+     */
+    final Set<Locale> readLocales(final DataInput data,
+                                  final List<Locale> table) throws IOException {
+        final Set<Locale> locales = Sets.ordered();
+        final int count = data.readInt();
+
+        for (int i = 0; i < count; i++) {
+            locales.add(table.get(data.readInt()));
+        }
+
+        return locales;
+    }
+
+    /**
+     * Reads locales written as their language, script, country and variant, verifying each language is already
+     * normalized.
+     */
+    final Set<Locale> readLocaleComponents(final DataInput data) throws IOException {
+        final Set<Locale> locales = Sets.ordered();
+        final int count = data.readInt();
+
+        for (int i = 0; i < count; i++) {
+            final String language = data.readUTF();
+            final String script = data.readUTF();
+            final String country = data.readUTF();
+            final String variant = data.readUTF();
+            this.checkEquals(WalkingkookaLanguageTag.oldToNewLanguage(language), language, "language normalized");
+
+            locales.add(
+                    script.isEmpty() ?
+                            new Locale(language, country, variant) :
+                            new Locale.Builder()
+                                    .setLanguage(language)
+                                    .setScript(script)
+                                    .setRegion(country)
+                                    .setVariant(variant)
+                                    .build()
+            );
+        }
+
+        return locales;
+    }
+
     final Locale readLocale(final DataInput data) throws IOException {
         final String tag = data.readUTF();
         final Locale locale = Locale.forLanguageTag(tag);
@@ -100,6 +427,8 @@ public abstract class ProviderToolTestCase<T> implements ClassTesting<T> {
     }
 
     abstract void generate0(final Set<String> locales,
+                            final ProviderToolOptions options,
+                            final ProviderToolIndex index,
                             final DataOutput data,
                             final IndentingPrinter comments) throws IOException;
 